@@ -0,0 +1,68 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Копия боя: снимок параллельных массивов против пересоздания юнитов с собственными картами бонусов
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BattleStateBenchmark {
+
+    @Param({"10", "63"})
+    public int armySize;
+
+    private Army playerArmy;
+    private Army computerArmy;
+    private BattleState state;
+    private BattleState snapshot;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        playerArmy = BattlefieldFixtures.army(armySize, true, random);
+        computerArmy = BattlefieldFixtures.army(armySize, false, random);
+        state = BattleState.fromArmies(playerArmy, computerArmy);
+        snapshot = state.snapshot();
+    }
+
+    @Benchmark
+    public BattleState snapshotState() {
+        return state.snapshot();
+    }
+
+    @Benchmark
+    public BattleState restoreSnapshot() {
+        state.restore(snapshot);
+        return state;
+    }
+
+    @Benchmark
+    public Army[] copyUnits() {
+        return new Army[]{copy(playerArmy), copy(computerArmy)};
+    }
+
+    @Benchmark
+    public Army[] materializeArmies() {
+        return new Army[]{state.toPlayerArmy(), state.toComputerArmy()};
+    }
+
+    private static Army copy(Army army) {
+        Army copy = new Army();
+        for (Unit unit : army.getUnits()) {
+            copy.getUnits().add(new Unit(unit.getName(), unit.getUnitType(), unit.getHealth(),
+                    unit.getBaseAttack(), unit.getCost(), unit.getAttackType(),
+                    new HashMap<>(unit.getAttackBonuses()), new HashMap<>(unit.getDefenceBonuses()),
+                    unit.getxCoordinate(), unit.getyCoordinate()));
+        }
+        return copy;
+    }
+}
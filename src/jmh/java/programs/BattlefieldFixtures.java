@@ -0,0 +1,142 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Program;
+import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import com.battle.heroes.army.programs.computer.ComputerArcherProgram;
+import com.battle.heroes.army.programs.computer.ComputerKnightProgram;
+import com.battle.heroes.army.programs.computer.ComputerPikemanProgram;
+import com.battle.heroes.army.programs.computer.ComputerSwordsmanProgram;
+import com.battle.heroes.army.programs.user.UserArcherProgram;
+import com.battle.heroes.army.programs.user.UserKnightProgram;
+import com.battle.heroes.army.programs.user.UserPikemanProgram;
+import com.battle.heroes.army.programs.user.UserSwordsmanProgram;
+import com.battle.heroes.util.GameSpeedUtil;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+
+// Общие заготовки для бенчмарков: шаблоны юнитов, армии и поле с препятствиями
+final class BattlefieldFixtures {
+    static final int FIELD_WIDTH = BattlefieldGeometry.DEFAULT.width();
+    static final int FIELD_HEIGHT = BattlefieldGeometry.DEFAULT.height();
+    static final int ARMY_DEPTH = BattlefieldGeometry.DEFAULT.armyDepth();
+    static final int PLAYER_FIRST_ROW = BattlefieldGeometry.DEFAULT.playerFirstRow();
+
+    private BattlefieldFixtures() {
+    }
+
+    static List<Unit> unitTemplates() {
+        List<Unit> templates = new ArrayList<>();
+        templates.add(template("Knight", 420, 20, 30, "Melee"));
+        templates.add(template("Swordsman", 320, 18, 25, "Melee"));
+        templates.add(template("Pikeman", 300, 15, 20, "Melee"));
+        templates.add(template("Archer", 200, 25, 35, "Ranged"));
+        return templates;
+    }
+
+    private static Unit template(String type, int health, int attack, int cost, String attackType) {
+        Map<String, Double> attackBonuses = new HashMap<>();
+        Map<String, Double> defenceBonuses = new HashMap<>();
+        return new Unit(type, type, health, attack, cost, attackType,
+                attackBonuses, defenceBonuses, 0, 0);
+    }
+
+    // Армия размещается в трёх крайних рядах: компьютер слева (x = 0..2), игрок справа (x = 24..26)
+    static Army army(int size, boolean isPlayer, Random random) {
+        return army(BattlefieldGeometry.DEFAULT, size, isPlayer, random);
+    }
+
+    static Army army(BattlefieldGeometry geometry, int size, boolean isPlayer, Random random) {
+        List<Unit> templates = unitTemplates();
+        List<Integer> cells = new ArrayList<>();
+        for (int i = 0; i < geometry.armyDepth() * geometry.height(); i++) {
+            cells.add(i);
+        }
+        Collections.shuffle(cells, random);
+
+        int firstRow = isPlayer ? geometry.playerFirstRow() : geometry.computerFirstRow();
+        Army army = new Army();
+        for (int i = 0; i < Math.min(size, cells.size()); i++) {
+            Unit template = templates.get(i % templates.size());
+            int cell = cells.get(i);
+            army.getUnits().add(new Unit(
+                    template.getUnitType() + " " + i,
+                    template.getUnitType(),
+                    template.getHealth(),
+                    template.getBaseAttack(),
+                    template.getCost(),
+                    template.getAttackType(),
+                    template.getAttackBonuses(),
+                    template.getDefenceBonuses(),
+                    firstRow + cell / geometry.height(),
+                    cell % geometry.height()
+            ));
+        }
+        return army;
+    }
+
+    // Заполняет середину поля неподвижными юнитами с заданной плотностью
+    static List<Unit> obstacles(double density, Random random) {
+        return obstacles(BattlefieldGeometry.DEFAULT, density, random);
+    }
+
+    static List<Unit> obstacles(BattlefieldGeometry geometry, double density, Random random) {
+        List<Unit> obstacles = new ArrayList<>();
+        for (int x = geometry.armyDepth(); x < geometry.playerFirstRow(); x++) {
+            for (int y = 0; y < geometry.height(); y++) {
+                if (random.nextDouble() < density) {
+                    obstacles.add(new Unit("Obstacle " + x + "," + y, "Obstacle", 1, 0, 0,
+                            "None", Map.of(), Map.of(), x, y));
+                }
+            }
+        }
+        return obstacles;
+    }
+
+    static void bindPrograms(Army playerArmy, Army computerArmy) {
+        bindPrograms(playerArmy, computerArmy, new UnitTargetPathFinderImpl());
+    }
+
+    static void bindPrograms(Army playerArmy, Army computerArmy, UnitTargetPathFinder pathFinder) {
+        GameSpeedUtil speed = new GameSpeedUtil(0);
+        SuitableForAttackUnitsFinder finder = new SuitableForAttackUnitsFinderImpl();
+
+        for (Unit unit : playerArmy.getUnits()) {
+            unit.setProgram(userProgram(unit, playerArmy, computerArmy, speed, finder, pathFinder));
+        }
+        for (Unit unit : computerArmy.getUnits()) {
+            unit.setProgram(computerProgram(unit, computerArmy, playerArmy, speed, finder, pathFinder));
+        }
+    }
+
+    private static Program userProgram(Unit unit, Army ally, Army enemy, GameSpeedUtil speed,
+                                       SuitableForAttackUnitsFinder finder, UnitTargetPathFinder pathFinder) {
+        return switch (unit.getUnitType()) {
+            case "Knight" -> new UserKnightProgram(unit, ally, enemy, speed, finder, pathFinder);
+            case "Swordsman" -> new UserSwordsmanProgram(unit, ally, enemy, speed, finder, pathFinder);
+            case "Pikeman" -> new UserPikemanProgram(unit, ally, enemy, speed, finder, pathFinder);
+            default -> new UserArcherProgram(unit, ally, enemy, speed);
+        };
+    }
+
+    private static Program computerProgram(Unit unit, Army ally, Army enemy, GameSpeedUtil speed,
+                                           SuitableForAttackUnitsFinder finder, UnitTargetPathFinder pathFinder) {
+        return switch (unit.getUnitType()) {
+            case "Knight" -> new ComputerKnightProgram(unit, ally, enemy, speed, finder, pathFinder);
+            case "Swordsman" -> new ComputerSwordsmanProgram(unit, ally, enemy, speed, finder, pathFinder);
+            case "Pikeman" -> new ComputerPikemanProgram(unit, ally, enemy, speed, finder, pathFinder);
+            default -> new ComputerArcherProgram(unit, ally, enemy, speed);
+        };
+    }
+
+    // Реализации печатают диагностику в System.out; в замерах она только шумит
+    static PrintStream silenceStdout() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
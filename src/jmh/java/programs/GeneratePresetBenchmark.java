@@ -0,0 +1,64 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratePresetBenchmark {
+
+    @Param({"300", "1500", "4000"})
+    public int budget;
+
+    private GeneratePresetImpl generatePreset;
+    private GeneratePresetImpl optimalPreset;
+    private CachingGeneratePreset cachedPreset;
+    private List<Unit> templates;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        generatePreset = new GeneratePresetImpl();
+        optimalPreset = new GeneratePresetImpl();
+        optimalPreset.setPresetStrategy(PresetStrategy.OPTIMAL);
+        cachedPreset = new CachingGeneratePreset(new GeneratePresetImpl(), 16);
+        templates = BattlefieldFixtures.unitTemplates();
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public Army generate() {
+        return generatePreset.generate(templates, budget);
+    }
+
+    // Повторный запрос того же каталога и бюджета: копия состава из кэша
+    @Benchmark
+    public Army generateCached() {
+        return cachedPreset.generate(templates, budget);
+    }
+
+    @Benchmark
+    public Army generateOptimal() {
+        return optimalPreset.generate(templates, budget);
+    }
+
+    // Оптимальные составы для всех бюджетов от 0 до budget за одно построение таблицы
+    @Benchmark
+    public List<PresetOptimizer.Composition> sweepBudgets() {
+        return new PresetOptimizer(templates, budget).getCompositions();
+    }
+}
@@ -0,0 +1,94 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Повторный поиск пути того же атакующего к той же цели, когда между запросами на поле
+// появляется или исчезает одно препятствие на середине пути
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalReplanningBenchmark {
+
+    @Param({"27", "200"})
+    public int fieldSize;
+
+    private UnitTargetPathFinderImpl dijkstra;
+    private UnitTargetPathFinderImpl aStar;
+    private DStarLitePathFinder dStarLite;
+    private Unit attacker;
+    private Unit target;
+    private Unit blocker;
+    private List<Unit> allUnits;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        BattlefieldGeometry geometry = fieldSize == BattlefieldGeometry.DEFAULT.width()
+                ? BattlefieldGeometry.DEFAULT
+                : BattlefieldGeometry.of(fieldSize, fieldSize);
+        Random random = new Random(42);
+        Army playerArmy = BattlefieldFixtures.army(geometry, 40, true, random);
+        Army computerArmy = BattlefieldFixtures.army(geometry, 40, false, random);
+
+        attacker = playerArmy.getUnits().stream()
+                .min(Comparator.comparingInt(Unit::getxCoordinate))
+                .orElseThrow();
+        target = computerArmy.getUnits().stream()
+                .max(Comparator.comparingInt(Unit::getxCoordinate))
+                .orElseThrow();
+
+        allUnits = new ArrayList<>(playerArmy.getUnits());
+        allUnits.addAll(computerArmy.getUnits());
+        allUnits.addAll(BattlefieldFixtures.obstacles(geometry, 0.15, random));
+
+        // Препятствие ставится в свободную клетку первого найденного пути
+        dijkstra = new UnitTargetPathFinderImpl(geometry, PathSearchAlgorithm.DIJKSTRA, null);
+        List<Edge> path = dijkstra.getTargetPath(attacker, target, allUnits);
+        Edge middle = path.get(path.size() / 2);
+        blocker = new Unit("Blocker", "Obstacle", 1, 0, 0, "None", Map.of(), Map.of(),
+                middle.getX(), middle.getY());
+        allUnits.add(blocker);
+
+        aStar = new UnitTargetPathFinderImpl(geometry, PathSearchAlgorithm.A_STAR, null);
+        dStarLite = new DStarLitePathFinder(geometry);
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public List<Edge> dijkstra() {
+        blocker.setAlive(!blocker.isAlive());
+        return dijkstra.getTargetPath(attacker, target, allUnits);
+    }
+
+    @Benchmark
+    public List<Edge> aStar() {
+        blocker.setAlive(!blocker.isAlive());
+        return aStar.getTargetPath(attacker, target, allUnits);
+    }
+
+    // Состояние прошлого поиска чинится вокруг одной изменившейся клетки
+    @Benchmark
+    public List<Edge> dStarLite() {
+        blocker.setAlive(!blocker.isAlive());
+        return dStarLite.getTargetPath(attacker, target, allUnits);
+    }
+}
@@ -0,0 +1,90 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Сравнение Dijkstra и JPS на разреженном и плотном поле.
+// Помимо ops/s выводятся счётчики expandedNodes и searches: их отношение - раскрытые узлы на один поиск
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JumpPointSearchBenchmark {
+
+    @Param({"0.05", "0.35"})
+    public double obstacleDensity;
+
+    private UnitTargetPathFinderImpl dijkstra;
+    private JumpPointPathFinder jumpPoint;
+    private Unit attacker;
+    private Unit target;
+    private List<Unit> allUnits;
+    private PrintStream stdout;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ExpansionCounters {
+        public long expandedNodes;
+        public long searches;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expandedNodes = 0;
+            searches = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Army playerArmy = BattlefieldFixtures.army(20, true, random);
+        Army computerArmy = BattlefieldFixtures.army(20, false, random);
+
+        attacker = playerArmy.getUnits().stream()
+                .min(Comparator.comparingInt(Unit::getxCoordinate))
+                .orElseThrow();
+        target = computerArmy.getUnits().stream()
+                .max(Comparator.comparingInt(Unit::getxCoordinate))
+                .orElseThrow();
+
+        allUnits = new ArrayList<>(playerArmy.getUnits());
+        allUnits.addAll(computerArmy.getUnits());
+        allUnits.addAll(BattlefieldFixtures.obstacles(obstacleDensity, random));
+
+        dijkstra = new UnitTargetPathFinderImpl();
+        jumpPoint = new JumpPointPathFinder();
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public List<Edge> dijkstra(ExpansionCounters counters) {
+        List<Edge> path = dijkstra.getTargetPath(attacker, target, allUnits);
+        counters.expandedNodes += PathSearchScratch.lastExpandedNodeCount();
+        counters.searches++;
+        return path;
+    }
+
+    @Benchmark
+    public List<Edge> jumpPoint(ExpansionCounters counters) {
+        List<Edge> path = jumpPoint.getTargetPath(attacker, target, allUnits);
+        counters.expandedNodes += PathSearchScratch.lastExpandedNodeCount();
+        counters.searches++;
+        return path;
+    }
+}
@@ -0,0 +1,90 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Поиск пути через всё поле на квадратных полях BattlefieldGeometry с тысячами юнитов в армии
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeBattlefieldBenchmark {
+
+    @Param({"100", "1000"})
+    public int fieldSize;
+
+    @Param({"2000"})
+    public int armySize;
+
+    private UnitTargetPathFinderImpl dijkstra;
+    private UnitTargetPathFinderImpl sizedPathFinder;
+    private JumpPointPathFinder jumpPoint;
+    private HierarchicalPathFinder hierarchical;
+    private Unit attacker;
+    private Unit target;
+    private List<Unit> allUnits;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        BattlefieldGeometry geometry = BattlefieldGeometry.of(fieldSize, fieldSize);
+        Random random = new Random(42);
+        Army playerArmy = BattlefieldFixtures.army(geometry, armySize, true, random);
+        Army computerArmy = BattlefieldFixtures.army(geometry, armySize, false, random);
+
+        attacker = playerArmy.getUnits().stream()
+                .min(Comparator.comparingInt(Unit::getxCoordinate))
+                .orElseThrow();
+        target = computerArmy.getUnits().stream()
+                .max(Comparator.comparingInt(Unit::getxCoordinate))
+                .orElseThrow();
+
+        allUnits = new ArrayList<>(playerArmy.getUnits());
+        allUnits.addAll(computerArmy.getUnits());
+        allUnits.addAll(BattlefieldFixtures.obstacles(geometry, 0.15, random));
+
+        dijkstra = new UnitTargetPathFinderImpl(geometry, PathSearchAlgorithm.DIJKSTRA, null);
+        sizedPathFinder = new UnitTargetPathFinderImpl(geometry);
+        jumpPoint = new JumpPointPathFinder(geometry);
+        hierarchical = new HierarchicalPathFinder(geometry);
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public List<Edge> dijkstra() {
+        return dijkstra.getTargetPath(attacker, target, allUnits);
+    }
+
+    // Алгоритм по умолчанию для размера поля
+    @Benchmark
+    public List<Edge> sizedDefault() {
+        return sizedPathFinder.getTargetPath(attacker, target, allUnits);
+    }
+
+    @Benchmark
+    public List<Edge> jumpPoint() {
+        return jumpPoint.getTargetPath(attacker, target, allUnits);
+    }
+
+    // Граф кластеров строится при первом вызове, дальше поле не меняется и замеряется только запрос
+    @Benchmark
+    public List<Edge> hierarchical() {
+        return hierarchical.getTargetPath(attacker, target, allUnits);
+    }
+}
@@ -0,0 +1,52 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Масштабирование серии боёв по числу потоков: время серии при parallelism = 1 делится
+// на время при большем parallelism, в идеале результат равен числу потоков (до числа ядер)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonteCarloBattleRunnerBenchmark {
+
+    @Param({"20"})
+    public int armySize;
+
+    @Param({"64"})
+    public int trials;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private MonteCarloBattleRunner runner;
+    private Army playerArmy;
+    private Army computerArmy;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        playerArmy = BattlefieldFixtures.army(armySize, true, random);
+        computerArmy = BattlefieldFixtures.army(armySize, false, random);
+        runner = new MonteCarloBattleRunner(new StandardProgramFactory(), parallelism);
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public MonteCarloResult runTrials() throws InterruptedException {
+        return runner.run(playerArmy, computerArmy, trials);
+    }
+}
@@ -0,0 +1,68 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulateBattleBenchmark {
+
+    @Param({"5", "20", "63"})
+    public int armySize;
+
+    // Поиск пути: Dijkstra на каждый ход, LRU-кэш путей или общие поля расстояний до целей
+    @Param({"dijkstra", "pathCache", "flowField"})
+    public String pathFinderMode;
+
+    private SimulateBattleImpl simulateBattle;
+    private UnitTargetPathFinder pathFinder;
+    private Army playerArmy;
+    private Army computerArmy;
+    private Random random;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        simulateBattle = new SimulateBattleImpl();
+        simulateBattle.setPrintBattleLog((attacker, target) -> { });
+
+        OccupancyTracker occupancyTracker = new OccupancyTracker();
+        simulateBattle.addBattleEventListener(occupancyTracker);
+        pathFinder = switch (pathFinderMode) {
+            case "pathCache" -> new CachingUnitTargetPathFinder(
+                    new UnitTargetPathFinderImpl(), occupancyTracker, 1024);
+            case "flowField" -> new FlowFieldPathFinder(occupancyTracker);
+            default -> new UnitTargetPathFinderImpl();
+        };
+        random = new Random(42);
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    // Бой изменяет армии, поэтому каждый вызов получает свежую пару
+    @Setup(Level.Invocation)
+    public void prepareArmies() {
+        playerArmy = BattlefieldFixtures.army(armySize, true, random);
+        computerArmy = BattlefieldFixtures.army(armySize, false, random);
+        BattlefieldFixtures.bindPrograms(playerArmy, computerArmy, pathFinder);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public Army simulate() throws InterruptedException {
+        simulateBattle.simulate(playerArmy, computerArmy);
+        return playerArmy;
+    }
+}
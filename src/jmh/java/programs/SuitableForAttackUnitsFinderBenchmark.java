@@ -0,0 +1,78 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuitableForAttackUnitsFinderBenchmark {
+
+    @Param({"10", "40", "63"})
+    public int armySize;
+
+    private SuitableForAttackUnitsFinderImpl finder;
+    private SuitableForAttackUnitsFinderImpl trackedFinder;
+    private List<List<Unit>> computerRows;
+    private List<List<Unit>> playerRows;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Army computerArmy = BattlefieldFixtures.army(armySize, false, random);
+        Army playerArmy = BattlefieldFixtures.army(armySize, true, random);
+
+        // Ряды собираются так же, как это делает Program.getUnitsByRow
+        computerRows = rows(computerArmy, 0);
+        playerRows = rows(playerArmy, BattlefieldFixtures.PLAYER_FIRST_ROW);
+
+        finder = new SuitableForAttackUnitsFinderImpl();
+        trackedFinder = new SuitableForAttackUnitsFinderImpl(List.of(
+                AttackableUnitsTracker.forComputerArmy(computerArmy),
+                AttackableUnitsTracker.forPlayerArmy(playerArmy)));
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    private static List<List<Unit>> rows(Army army, int firstRow) {
+        List<List<Unit>> rows = new ArrayList<>();
+        for (int x = firstRow; x < firstRow + BattlefieldFixtures.ARMY_DEPTH; x++) {
+            int row = x;
+            rows.add(army.getUnits().stream()
+                    .filter(unit -> unit.getxCoordinate() == row)
+                    .toList());
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public List<Unit> playerAttacksComputer() {
+        return finder.getSuitableUnits(computerRows, true);
+    }
+
+    @Benchmark
+    public List<Unit> computerAttacksPlayer() {
+        return finder.getSuitableUnits(playerRows, false);
+    }
+
+    // Множество целей читается из трекера, поддерживаемого событиями боя
+    @Benchmark
+    public List<Unit> playerAttacksComputerTracked() {
+        return trackedFinder.getSuitableUnits(computerRows, true);
+    }
+}
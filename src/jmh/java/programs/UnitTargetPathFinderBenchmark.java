@@ -0,0 +1,105 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnitTargetPathFinderBenchmark {
+
+    @Param({"10", "40", "63"})
+    public int armySize;
+
+    @Param({"0.0", "0.15", "0.35"})
+    public double obstacleDensity;
+
+    private UnitTargetPathFinderImpl pathFinder;
+    private UnitTargetPathFinderImpl indexedPathFinder;
+    private Unit attacker;
+    private Unit target;
+    private List<Unit> allUnits;
+    private List<Unit> targets;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Army playerArmy = BattlefieldFixtures.army(armySize, true, random);
+        Army computerArmy = BattlefieldFixtures.army(armySize, false, random);
+
+        // Атакует самый выдвинутый вперёд юнит игрока, цель - передний юнит компьютера
+        attacker = playerArmy.getUnits().stream()
+                .min(Comparator.comparingInt(Unit::getxCoordinate))
+                .orElseThrow();
+        target = computerArmy.getUnits().stream()
+                .max(Comparator.comparingInt(Unit::getxCoordinate))
+                .orElseThrow();
+
+        targets = computerArmy.getUnits();
+
+        allUnits = new ArrayList<>(playerArmy.getUnits());
+        allUnits.addAll(computerArmy.getUnits());
+        allUnits.addAll(BattlefieldFixtures.obstacles(obstacleDensity, random));
+
+        pathFinder = new UnitTargetPathFinderImpl();
+
+        BattlefieldIndex battlefieldIndex = new BattlefieldIndex(BattlefieldGeometry.DEFAULT);
+        allUnits.forEach(battlefieldIndex::add);
+        indexedPathFinder = new UnitTargetPathFinderImpl(PathSearchAlgorithm.DIJKSTRA, battlefieldIndex);
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public List<Edge> dijkstra() {
+        return pathFinder.getTargetPath(attacker, target, allUnits);
+    }
+
+    // Препятствия копируются из индекса поля вместо обхода всех юнитов
+    @Benchmark
+    public List<Edge> dijkstraIndexed() {
+        return indexedPathFinder.getTargetPath(attacker, target, allUnits);
+    }
+
+    @Benchmark
+    public List<Edge> aStar() {
+        return pathFinder.getTargetPathAStar(attacker, target, allUnits);
+    }
+
+    @Benchmark
+    public List<Edge> breadthFirst() {
+        return pathFinder.getTargetPathBreadthFirst(attacker, target, allUnits);
+    }
+
+    // Пути до всех юнитов армии противника: отдельный поиск на каждую цель против одного общего
+    @Benchmark
+    public void perTargetSearches(Blackhole blackhole) {
+        for (Unit candidate : targets) {
+            blackhole.consume(pathFinder.getTargetPath(attacker, candidate, allUnits));
+        }
+    }
+
+    @Benchmark
+    public Map<Unit, List<Edge>> oneToMany() {
+        return pathFinder.getTargetPaths(attacker, targets, allUnits);
+    }
+}
@@ -0,0 +1,62 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Поиск подходящих юнитов на рядах шире стандартных 21 колонки.
+// Четыре ряда, чтобы у атакующего ряда игрока (ряд 2) был ряд перед ним и проверка блокирующих юнитов
+// действительно выполнялась; примерно четверть юнитов мертва
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WideRowSuitableUnitsBenchmark {
+    private static final int ROW_COUNT = 4;
+
+    @Param({"21", "1000", "10000"})
+    public int columns;
+
+    private SuitableForAttackUnitsFinderImpl finder;
+    private List<List<Unit>> rows;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rows = new ArrayList<>();
+        for (int x = 0; x < ROW_COUNT; x++) {
+            List<Unit> row = new ArrayList<>();
+            for (int y = 0; y < columns; y++) {
+                Unit unit = new Unit("Unit " + x + "," + y, "Knight", 100, 10, 10, "Melee",
+                        Map.of(), Map.of(), x, y);
+                unit.setAlive(random.nextInt(4) != 0);
+                row.add(unit);
+            }
+            Collections.shuffle(row, random);
+            rows.add(row);
+        }
+
+        finder = new SuitableForAttackUnitsFinderImpl();
+        stdout = BattlefieldFixtures.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public List<Unit> playerAttacks() {
+        return finder.getSuitableUnits(rows, true);
+    }
+}
@@ -0,0 +1,315 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Журнал боя с отложенной записью.
+// Поток симуляции только кладёт запись в кольцевой буфер фиксированного размера, а фоновый поток
+// забирает записи пачками и передаёт их в BattleLogSink. При переполнении буфера поведение задаёт
+// BackpressurePolicy. flush() возвращается, когда всё записанное до него дошло до получателя.
+// Исключение получателя не останавливает поток записи, а выбрасывается из ближайшего flush() или close();
+// Error получателя останавливает поток записи, после чего записи отбрасываются, а flush() не ждёт
+public class AsyncBattleLog implements BattleLog, AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final BattleLogSink sink;
+    private final BackpressurePolicy backpressurePolicy;
+    private final int batchSize;
+
+    private final BattleLogEntry[] buffer;
+    private int head;
+    private int size;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+
+    // Порядковые номера принятых, переданных получателю и сброшенных им записей
+    private long publishedCount;
+    private long drainedCount;
+    private long flushedCount;
+    private long droppedCount;
+    private long failedBatchCount;
+    // Первая ещё не выброшенная ошибка получателя
+    private Throwable sinkFailure;
+    private boolean flushRequested;
+    private boolean closed;
+    // Поток записи завершился, штатно или из-за ошибки; больше никто не сбросит записи
+    private boolean writerDone;
+
+    private final Thread writer;
+
+    public AsyncBattleLog(BattleLogSink sink) {
+        this(sink, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, BackpressurePolicy.BLOCK);
+    }
+
+    public AsyncBattleLog(BattleLogSink sink, int capacity, int batchSize, BackpressurePolicy backpressurePolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Log capacity must be positive: " + capacity);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+
+        this.sink = sink;
+        this.backpressurePolicy = backpressurePolicy;
+        this.batchSize = batchSize;
+        this.buffer = new BattleLogEntry[capacity];
+
+        this.writer = new Thread(this::drainLoop, "battle-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void printBattleLog(Unit attacker, Unit target) {
+        publish(BattleLogEntry.attack(attacker, target));
+    }
+
+    @Override
+    public void publish(BattleLogEntry entry) {
+        offer(entry);
+    }
+
+    // Возвращает false, если запись отброшена из-за переполнения или журнал уже закрыт
+    public boolean offer(BattleLogEntry entry) {
+        lock.lock();
+        try {
+            if (closed || writerDone) {
+                droppedCount++;
+                return false;
+            }
+
+            while (size == buffer.length) {
+                if (backpressurePolicy == BackpressurePolicy.DROP_NEWEST) {
+                    droppedCount++;
+                    return false;
+                }
+                notFull.awaitUninterruptibly();
+                if (closed || writerDone) {
+                    droppedCount++;
+                    return false;
+                }
+            }
+
+            buffer[(head + size) % buffer.length] = entry;
+            size++;
+            publishedCount++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ждёт, пока все принятые до вызова записи будут переданы получателю и сброшены им
+    @Override
+    public void flush() throws InterruptedException {
+        lock.lock();
+        try {
+            long target = publishedCount;
+            if (flushedCount < target && !writerDone) {
+                flushRequested = true;
+                notEmpty.signal();
+                while (flushedCount < target && !writerDone) {
+                    flushed.await();
+                }
+            }
+
+            throwSinkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Дописывает оставшиеся записи и ждёт, пока поток записи закроет получателя.
+    // Прерванный close() возвращается сразу с восстановленным флагом прерывания, а поток записи
+    // всё равно допишет записи и закроет получателя сам
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                notEmpty.signal();
+                notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        lock.lock();
+        try {
+            throwSinkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getPublishedCount() {
+        lock.lock();
+        try {
+            return publishedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Записи, потерянные при переполнении буфера (DROP_NEWEST) или после закрытия
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Пачки, на которых получатель выбросил исключение, включая уже выброшенные из flush() и close()
+    public long getFailedBatchCount() {
+        lock.lock();
+        try {
+            return failedBatchCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Любой выход потока записи, в том числе из-за Error получателя, будит ждущих flush() и offer()
+    private void drainLoop() {
+        Throwable writerFailure = null;
+        try {
+            drainBatches();
+            closeSink();
+        } catch (RuntimeException | Error e) {
+            writerFailure = e;
+            throw e;
+        } finally {
+            lock.lock();
+            try {
+                if (writerFailure != null) {
+                    recordSinkFailure(writerFailure);
+                }
+                writerDone = true;
+                flushedCount = drainedCount;
+                flushed.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drainBatches() {
+        List<BattleLogEntry> batch = new ArrayList<>(batchSize);
+
+        while (true) {
+            boolean flushNow;
+            long drainedUpTo;
+
+            lock.lock();
+            try {
+                while (size == 0 && !flushRequested && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (size == 0 && closed) {
+                    break;
+                }
+
+                int count = Math.min(size, batchSize);
+                for (int i = 0; i < count; i++) {
+                    batch.add(buffer[head]);
+                    buffer[head] = null;
+                    head = (head + 1) % buffer.length;
+                }
+                size -= count;
+                drainedCount += count;
+                drainedUpTo = drainedCount;
+                notFull.signalAll();
+
+                // Сбрасываем получателя, только когда буфер опустел: иначе следующая пачка всё равно на подходе
+                flushNow = size == 0 && (flushRequested || closed);
+                if (flushNow) {
+                    flushRequested = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException failure = null;
+            try {
+                if (!batch.isEmpty()) {
+                    sink.write(batch);
+                }
+                if (flushNow) {
+                    sink.flush();
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            batch.clear();
+
+            lock.lock();
+            try {
+                if (failure != null) {
+                    failedBatchCount++;
+                    recordSinkFailure(failure);
+                }
+                if (flushNow) {
+                    flushedCount = drainedUpTo;
+                    flushed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void closeSink() {
+        RuntimeException closeFailure = null;
+        try {
+            sink.close();
+        } catch (RuntimeException e) {
+            closeFailure = e;
+        }
+
+        lock.lock();
+        try {
+            if (closeFailure != null) {
+                recordSinkFailure(closeFailure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Следующие ошибки до выброса первой добавляются к ней как подавленные
+    private void recordSinkFailure(Throwable failure) {
+        if (sinkFailure == null) {
+            sinkFailure = failure;
+        } else {
+            sinkFailure.addSuppressed(failure);
+        }
+    }
+
+    private void throwSinkFailure() {
+        Throwable failure = sinkFailure;
+        if (failure != null) {
+            sinkFailure = null;
+            throw new IllegalStateException("Battle log sink failed", failure);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Поддерживаемое множество юнитов армии, которые можно атаковать с заданной стороны.
+// Правило то же, что у SuitableForAttackUnitsFinderImpl для рядов армии: подходят все живые юниты,
+// кроме юнитов атакующего ряда, перед которыми в той же колонке стоит живой юнит.
+// Множество обновляется по событиям боя за O(1) амортизированно: гибель убирает юнит,
+// перемещение переносит его между клетками, а появление или уход блокирующего юнита
+// перепроверяет только юнитов атакующего ряда в той же колонке
+public class AttackableUnitsTracker implements BattleEventListener {
+    private final Army army;
+    private final int firstRow;
+    private final int rowCount;
+    private final boolean isPlayerUnit;
+    private final int attackerRowIndex;
+    private final int targetRowIndex;
+
+    // Множество с удалением за O(1): юнит меняется местами с последним
+    private final List<Unit> attackableUnits = new ArrayList<>();
+    private final Map<Unit, Integer> attackablePositions = new IdentityHashMap<>();
+
+    // Для каждой колонки - число живых юнитов в ряду перед атакующим и живые юниты атакующего ряда
+    private int[] blockerCounts = new int[0];
+    private List<List<Unit>> frontUnits = new ArrayList<>();
+    private final Set<Unit> trackedUnits = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Число юнитов армии в каждом ряду, живых и погибших: так их собирает getUnitsByRow программы
+    private final int[] rowSizes;
+
+    // army - атакуемая армия, firstRow - её первый ряд по x, isPlayerUnit - атакует ли её игрок
+    public AttackableUnitsTracker(Army army, int firstRow, boolean isPlayerUnit) {
+        this(army, firstRow, BattlefieldGeometry.DEFAULT.armyDepth(), isPlayerUnit);
+    }
+
+    // rowCount - число рядов армии, столько же рядов собирает программа юнита
+    public AttackableUnitsTracker(Army army, int firstRow, int rowCount, boolean isPlayerUnit) {
+        if (rowCount <= 0) {
+            throw new IllegalArgumentException("Row count must be positive: " + rowCount);
+        }
+
+        this.army = army;
+        this.firstRow = firstRow;
+        this.rowCount = rowCount;
+        this.isPlayerUnit = isPlayerUnit;
+        this.attackerRowIndex = isPlayerUnit ? rowCount - 1 : 0;
+        this.targetRowIndex = attackerRowIndex + (isPlayerUnit ? 1 : -1);
+        this.rowSizes = new int[rowCount];
+        reset();
+    }
+
+    // Армия компьютера в рядах x = 0..2, её атакуют юниты игрока
+    public static AttackableUnitsTracker forComputerArmy(Army computerArmy) {
+        return forComputerArmy(BattlefieldGeometry.DEFAULT, computerArmy);
+    }
+
+    public static AttackableUnitsTracker forComputerArmy(BattlefieldGeometry geometry, Army computerArmy) {
+        return new AttackableUnitsTracker(computerArmy, geometry.computerFirstRow(), geometry.armyDepth(), true);
+    }
+
+    // Армия игрока в рядах x = 24..26, её атакуют юниты компьютера
+    public static AttackableUnitsTracker forPlayerArmy(Army playerArmy) {
+        return forPlayerArmy(BattlefieldGeometry.DEFAULT, playerArmy);
+    }
+
+    public static AttackableUnitsTracker forPlayerArmy(BattlefieldGeometry geometry, Army playerArmy) {
+        return new AttackableUnitsTracker(playerArmy, geometry.playerFirstRow(), geometry.armyDepth(), false);
+    }
+
+    // Пересчитывает множество с нуля, например перед новым боем тех же армий
+    public synchronized void rebuild() {
+        reset();
+    }
+
+    private void reset() {
+        attackableUnits.clear();
+        attackablePositions.clear();
+        blockerCounts = new int[0];
+        frontUnits = new ArrayList<>();
+        trackedUnits.clear();
+        Arrays.fill(rowSizes, 0);
+
+        for (Unit unit : army.getUnits()) {
+            trackedUnits.add(unit);
+            changeRowSize(unit.getxCoordinate(), 1);
+            if (unit.isAlive()) {
+                place(unit, unit.getxCoordinate(), unit.getyCoordinate());
+            }
+        }
+    }
+
+    // Подходит ли трекер для рядов, собранных программой через getUnitsByRow: размеры всех рядов
+    // совпадают с отслеживаемыми, а первый юнит каждого ряда принадлежит армии трекера
+    public synchronized boolean matches(List<List<Unit>> battlefieldRows, boolean isPlayerUnit) {
+        if (this.isPlayerUnit != isPlayerUnit || battlefieldRows.size() != rowCount) {
+            return false;
+        }
+
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            List<Unit> row = battlefieldRows.get(rowIndex);
+            if (row.size() != rowSizes[rowIndex]) {
+                return false;
+            }
+            if (!row.isEmpty()) {
+                Unit unit = row.get(0);
+                if (!trackedUnits.contains(unit) || unit.getxCoordinate() != firstRow + rowIndex) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Изменяемая копия: программы движка перемешивают полученный список
+    public synchronized List<Unit> getAttackableUnits() {
+        return new ArrayList<>(attackableUnits);
+    }
+
+    public synchronized int size() {
+        return attackableUnits.size();
+    }
+
+    @Override
+    public synchronized void onUnitMoved(Unit unit, int fromX, int fromY) {
+        if (!trackedUnits.contains(unit)) {
+            return;
+        }
+
+        changeRowSize(fromX, -1);
+        changeRowSize(unit.getxCoordinate(), 1);
+        if (!unit.isAlive()) {
+            return;
+        }
+        remove(unit, fromX, fromY);
+        place(unit, unit.getxCoordinate(), unit.getyCoordinate());
+    }
+
+    @Override
+    public synchronized void onUnitDied(Unit unit) {
+        if (!trackedUnits.contains(unit)) {
+            return;
+        }
+        remove(unit, unit.getxCoordinate(), unit.getyCoordinate());
+    }
+
+    private void changeRowSize(int x, int delta) {
+        int rowIndex = x - firstRow;
+        if (rowIndex >= 0 && rowIndex < rowCount) {
+            rowSizes[rowIndex] += delta;
+        }
+    }
+
+    private void place(Unit unit, int x, int y) {
+        int rowIndex = x - firstRow;
+        if (rowIndex < 0 || rowIndex >= rowCount || y < 0) {
+            return;
+        }
+
+        ensureColumn(y);
+        if (rowIndex == targetRowIndex) {
+            // Первый живой юнит в колонке закрывает юнитов атакующего ряда за ним
+            if (blockerCounts[y]++ == 0) {
+                frontUnits.get(y).forEach(this::removeAttackable);
+            }
+            addAttackable(unit);
+        } else if (rowIndex == attackerRowIndex) {
+            frontUnits.get(y).add(unit);
+            if (blockerCounts[y] == 0) {
+                addAttackable(unit);
+            }
+        } else {
+            addAttackable(unit);
+        }
+    }
+
+    private void remove(Unit unit, int x, int y) {
+        int rowIndex = x - firstRow;
+        if (rowIndex < 0 || rowIndex >= rowCount || y < 0 || y >= blockerCounts.length) {
+            return;
+        }
+
+        removeAttackable(unit);
+        if (rowIndex == targetRowIndex) {
+            // Последний живой юнит ушёл из колонки: юниты атакующего ряда снова открыты
+            if (--blockerCounts[y] == 0) {
+                frontUnits.get(y).forEach(this::addAttackable);
+            }
+        } else if (rowIndex == attackerRowIndex) {
+            frontUnits.get(y).remove(unit);
+        }
+    }
+
+    private void addAttackable(Unit unit) {
+        if (attackablePositions.putIfAbsent(unit, attackableUnits.size()) == null) {
+            attackableUnits.add(unit);
+        }
+    }
+
+    private void removeAttackable(Unit unit) {
+        Integer position = attackablePositions.remove(unit);
+        if (position == null) {
+            return;
+        }
+
+        Unit last = attackableUnits.remove(attackableUnits.size() - 1);
+        if (last != unit) {
+            attackableUnits.set(position, last);
+            attackablePositions.put(last, position);
+        }
+    }
+
+    private void ensureColumn(int y) {
+        if (y < blockerCounts.length) {
+            return;
+        }
+
+        int columns = Math.max(y + 1, blockerCounts.length * 2);
+        blockerCounts = Arrays.copyOf(blockerCounts, columns);
+        while (frontUnits.size() < columns) {
+            frontUnits.add(new ArrayList<>());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package programs;
+
+// Что делает AsyncBattleLog, когда буфер журнала заполнен
+public enum BackpressurePolicy {
+    // Поток симуляции ждёт, пока поток записи освободит место
+    BLOCK,
+    // Новая запись отбрасывается и учитывается в счётчике потерь
+    DROP_NEWEST
+}
@@ -0,0 +1,12 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+// Получает изменения поля боя, которые движок применил после хода юнита
+public interface BattleEventListener {
+    // Юнит перешёл из клетки (fromX, fromY) в свою текущую клетку
+    void onUnitMoved(Unit unit, int fromX, int fromY);
+
+    // Юнит погиб и больше не занимает клетку
+    void onUnitDied(Unit unit);
+}
@@ -0,0 +1,27 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+
+// Журнал боя, который принимает и итоги раундов: SimulateBattleImpl пишет их сюда вместо System.out
+public interface BattleLog extends PrintBattleLog {
+
+    void publish(BattleLogEntry entry);
+
+    // Вызывается в конце боя; возвращается, когда все записи боя сохранены
+    default void flush() throws InterruptedException {
+    }
+
+    // Журнал, который ничего не сохраняет: для пакетных прогонов, где важен только исход
+    static BattleLog discarding() {
+        return new BattleLog() {
+            @Override
+            public void printBattleLog(Unit attacker, Unit target) {
+            }
+
+            @Override
+            public void publish(BattleLogEntry entry) {
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+// Запись журнала боя. Данные юнитов копируются в момент хода, а текст собирается
+// уже в потоке записи, поэтому поток симуляции не склеивает строки
+public sealed interface BattleLogEntry {
+
+    String format();
+
+    static BattleLogEntry attack(Unit attacker, Unit target) {
+        if (target == null) {
+            return new Attack(attacker.getName(), null, 0, false);
+        }
+        return new Attack(attacker.getName(), target.getName(), target.getHealth(), target.isAlive());
+    }
+
+    record Attack(String attackerName, String targetName, int targetHealth, boolean targetAlive)
+            implements BattleLogEntry {
+        @Override
+        public String format() {
+            if (targetName == null) {
+                return attackerName + " found no target";
+            }
+            if (!targetAlive) {
+                return attackerName + " killed " + targetName;
+            }
+            return attackerName + " attacked " + targetName + ", health left: " + targetHealth;
+        }
+    }
+
+    record RoundSummary(int round, int playerUnitCount, int computerUnitCount) implements BattleLogEntry {
+        @Override
+        public String format() {
+            return System.lineSeparator()
+                    + "Round " + round + " is over!" + System.lineSeparator()
+                    + "Player army has " + playerUnitCount + " units" + System.lineSeparator()
+                    + "Computer army has " + computerUnitCount + " units" + System.lineSeparator();
+        }
+    }
+
+    record BattleResult(int playerUnitCount, int computerUnitCount) implements BattleLogEntry {
+        @Override
+        public String format() {
+            String result;
+            if (playerUnitCount == 0 && computerUnitCount == 0) {
+                result = "It's a draw!";
+            } else if (playerUnitCount > 0) {
+                result = "Player wins!";
+            } else {
+                result = "Computer wins!";
+            }
+            return "Battle is over!" + System.lineSeparator() + result;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package programs;
+
+import java.util.List;
+
+// Получатель пачек записей журнала; вызывается только из потока записи AsyncBattleLog
+public interface BattleLogSink {
+
+    void write(List<BattleLogEntry> batch);
+
+    default void flush() {
+    }
+
+    default void close() {
+    }
+}
@@ -0,0 +1,235 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Состояние боя в виде параллельных массивов (struct-of-arrays).
+// Изменяемые в бою поля - здоровье, атака, координаты и признак жизни - лежат в примитивных массивах,
+// а всё неизменяемое вынесено в общие UnitTemplate, на которые юнит ссылается номером шаблона.
+// Юниты игрока занимают индексы [0, playerUnitCount), юниты компьютера - следующие за ними.
+// Снимок копирует только изменяемые массивы, шаблоны, имена и номера шаблонов делятся между снимками
+public final class BattleState {
+    private final List<UnitTemplate> templates;
+    private final String[] names;
+    private final int[] templateIds;
+    private final int playerUnitCount;
+
+    private final int[] health;
+    private final int[] attack;
+    private final int[] xCoordinates;
+    private final int[] yCoordinates;
+    private final boolean[] alive;
+
+    private BattleState(List<UnitTemplate> templates, String[] names, int[] templateIds, int playerUnitCount) {
+        this.templates = templates;
+        this.names = names;
+        this.templateIds = templateIds;
+        this.playerUnitCount = playerUnitCount;
+
+        int unitCount = names.length;
+        this.health = new int[unitCount];
+        this.attack = new int[unitCount];
+        this.xCoordinates = new int[unitCount];
+        this.yCoordinates = new int[unitCount];
+        this.alive = new boolean[unitCount];
+    }
+
+    public static BattleState fromArmies(Army playerArmy, Army computerArmy) {
+        List<Unit> units = new ArrayList<>(playerArmy.getUnits());
+        units.addAll(computerArmy.getUnits());
+
+        // Одинаковые шаблоны получают один номер: record сравнивает типы, стоимость и бонусы по значению
+        List<UnitTemplate> templates = new ArrayList<>();
+        Map<UnitTemplate, Integer> templateIndex = new HashMap<>();
+        String[] names = new String[units.size()];
+        int[] templateIds = new int[units.size()];
+
+        for (int i = 0; i < units.size(); i++) {
+            Unit unit = units.get(i);
+            names[i] = unit.getName();
+            templateIds[i] = templateIndex.computeIfAbsent(UnitTemplate.of(unit), template -> {
+                templates.add(template);
+                return templates.size() - 1;
+            });
+        }
+
+        BattleState state = new BattleState(List.copyOf(templates), names, templateIds,
+                playerArmy.getUnits().size());
+        state.capture(playerArmy, computerArmy);
+        return state;
+    }
+
+    // Перечитывает изменяемые поля из юнитов тех же армий, из которых построено состояние
+    public void capture(Army playerArmy, Army computerArmy) {
+        checkArmySizes(playerArmy, computerArmy);
+
+        for (int i = 0; i < names.length; i++) {
+            Unit unit = unitAt(playerArmy, computerArmy, i);
+            health[i] = unit.getHealth();
+            attack[i] = unit.getBaseAttack();
+            xCoordinates[i] = unit.getxCoordinate();
+            yCoordinates[i] = unit.getyCoordinate();
+            alive[i] = unit.isAlive();
+        }
+    }
+
+    // Записывает изменяемые поля обратно в существующие юниты, не создавая новых объектов
+    public void applyTo(Army playerArmy, Army computerArmy) {
+        checkArmySizes(playerArmy, computerArmy);
+
+        for (int i = 0; i < names.length; i++) {
+            Unit unit = unitAt(playerArmy, computerArmy, i);
+            unit.setHealth(health[i]);
+            unit.setBaseAttack(attack[i]);
+            unit.setxCoordinate(xCoordinates[i]);
+            unit.setyCoordinate(yCoordinates[i]);
+            unit.setAlive(alive[i]);
+        }
+    }
+
+    public BattleState snapshot() {
+        BattleState copy = new BattleState(templates, names, templateIds, playerUnitCount);
+        copy.restore(this);
+        return copy;
+    }
+
+    // Возвращает состояние к снимку того же боя
+    public void restore(BattleState snapshot) {
+        if (snapshot.templateIds != templateIds) {
+            throw new IllegalArgumentException("Snapshot belongs to another battle");
+        }
+
+        int unitCount = names.length;
+        System.arraycopy(snapshot.health, 0, health, 0, unitCount);
+        System.arraycopy(snapshot.attack, 0, attack, 0, unitCount);
+        System.arraycopy(snapshot.xCoordinates, 0, xCoordinates, 0, unitCount);
+        System.arraycopy(snapshot.yCoordinates, 0, yCoordinates, 0, unitCount);
+        System.arraycopy(snapshot.alive, 0, alive, 0, unitCount);
+    }
+
+    // Новые юниты без программ; карты бонусов общие с шаблоном и не изменяются
+    public Army toPlayerArmy() {
+        return toArmy(0, playerUnitCount);
+    }
+
+    public Army toComputerArmy() {
+        return toArmy(playerUnitCount, names.length);
+    }
+
+    public int getUnitCount() {
+        return names.length;
+    }
+
+    public int getPlayerUnitCount() {
+        return playerUnitCount;
+    }
+
+    public boolean isPlayerUnit(int unit) {
+        return unit < playerUnitCount;
+    }
+
+    public String getName(int unit) {
+        return names[unit];
+    }
+
+    public UnitTemplate getTemplate(int unit) {
+        return templates.get(templateIds[unit]);
+    }
+
+    public int getTemplateId(int unit) {
+        return templateIds[unit];
+    }
+
+    public List<UnitTemplate> getTemplates() {
+        return templates;
+    }
+
+    public int getHealth(int unit) {
+        return health[unit];
+    }
+
+    public void setHealth(int unit, int value) {
+        health[unit] = value;
+    }
+
+    public int getAttack(int unit) {
+        return attack[unit];
+    }
+
+    public void setAttack(int unit, int value) {
+        attack[unit] = value;
+    }
+
+    public int getX(int unit) {
+        return xCoordinates[unit];
+    }
+
+    public int getY(int unit) {
+        return yCoordinates[unit];
+    }
+
+    public void moveTo(int unit, int x, int y) {
+        xCoordinates[unit] = x;
+        yCoordinates[unit] = y;
+    }
+
+    public boolean isAlive(int unit) {
+        return alive[unit];
+    }
+
+    public void setAlive(int unit, boolean value) {
+        alive[unit] = value;
+    }
+
+    public int getAliveCount(boolean isPlayer) {
+        int from = isPlayer ? 0 : playerUnitCount;
+        int to = isPlayer ? playerUnitCount : names.length;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (alive[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Army toArmy(int from, int to) {
+        Army army = new Army();
+        for (int i = from; i < to; i++) {
+            UnitTemplate template = getTemplate(i);
+            Unit unit = new Unit(
+                    names[i],
+                    template.unitType(),
+                    health[i],
+                    attack[i],
+                    template.cost(),
+                    template.attackType(),
+                    template.attackBonuses(),
+                    template.defenceBonuses(),
+                    xCoordinates[i],
+                    yCoordinates[i]
+            );
+            unit.setAlive(alive[i]);
+            army.getUnits().add(unit);
+        }
+        return army;
+    }
+
+    private Unit unitAt(Army playerArmy, Army computerArmy, int unit) {
+        return unit < playerUnitCount
+                ? playerArmy.getUnits().get(unit)
+                : computerArmy.getUnits().get(unit - playerUnitCount);
+    }
+
+    private void checkArmySizes(Army playerArmy, Army computerArmy) {
+        if (playerArmy.getUnits().size() != playerUnitCount
+                || computerArmy.getUnits().size() != names.length - playerUnitCount) {
+            throw new IllegalArgumentException("Armies do not match the battle state");
+        }
+    }
+}
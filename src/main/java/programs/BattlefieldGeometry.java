@@ -0,0 +1,60 @@
+package programs;
+
+// Размеры поля боя: width клеток по x (ряды от армии компьютера к армии игрока), height клеток по y
+// (колонки) и armyDepth рядов расстановки у каждой армии. Индекс клетки = x * height + y, как в OccupancyGrid
+public record BattlefieldGeometry(int width, int height, int armyDepth) {
+    public static final int MAX_SIDE = 1000;
+
+    // Стандартное поле игры: 27 x 21, армии по 3 ряда у противоположных краёв
+    public static final BattlefieldGeometry DEFAULT = new BattlefieldGeometry(27, 21, 3);
+
+    // Начиная с этого числа клеток поиск без эвристики раскрывает слишком большую часть поля
+    private static final int LARGE_FIELD_CELLS = 64 * 64;
+
+    public BattlefieldGeometry {
+        if (width <= 0 || width > MAX_SIDE || height <= 0 || height > MAX_SIDE) {
+            throw new IllegalArgumentException("Battlefield size must be within 1.." + MAX_SIDE + ": "
+                    + width + "x" + height);
+        }
+        if (armyDepth <= 0 || 2 * armyDepth > width) {
+            throw new IllegalArgumentException("Army depth " + armyDepth + " does not fit battlefield width " + width);
+        }
+    }
+
+    // Армии стоят в разных рядах, поэтому поле не уже 2 клеток; на узком поле глубина армии
+    // уменьшается до width / 2, так что of принимает поля от 2 x 1 до MAX_SIDE x MAX_SIDE
+    public static BattlefieldGeometry of(int width, int height) {
+        return new BattlefieldGeometry(width, height, Math.max(Math.min(DEFAULT.armyDepth(), width / 2), 1));
+    }
+
+    public int cellCount() {
+        return width * height;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public int index(int x, int y) {
+        return x * height + y;
+    }
+
+    // Армия компьютера стоит в рядах x = 0..armyDepth - 1, армия игрока - в последних armyDepth рядах
+    public int computerFirstRow() {
+        return 0;
+    }
+
+    public int playerFirstRow() {
+        return width - armyDepth;
+    }
+
+    public boolean isLarge() {
+        return cellCount() >= LARGE_FIELD_CELLS;
+    }
+
+    // На маленьком поле Dijkstra дешевле A* за счёт отсутствия эвристики, на большом A* раскрывает
+    // только коридор к цели
+    public PathSearchAlgorithm defaultPathSearchAlgorithm() {
+        return isLarge() ? PathSearchAlgorithm.A_STAR : PathSearchAlgorithm.DIJKSTRA;
+    }
+}
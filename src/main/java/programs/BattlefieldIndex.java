@@ -0,0 +1,238 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Пространственный индекс живых юнитов поля.
+// Массив клетка -> юнит отвечает на запрос точки за O(1). Занятые ряды (x) хранятся в упорядоченной
+// карте, а юниты каждого ряда - по y, поэтому запрос ряда стоит O(log n + k), а запрос квадрата
+// O((r + 1) log n + k), где r - число занятых рядов квадрата, а k - число найденных юнитов.
+// Списки колонок (y) с удалением обменом с последним отвечают за O(k), а битовая карта занятости
+// копируется в поиск пути целиком вместо обхода всех юнитов. Индекс обновляется событиями боя,
+// поэтому его нужно зарегистрировать в SimulateBattleImpl как BattleEventListener
+public class BattlefieldIndex implements BattleEventListener {
+    private final int width;
+    private final int height;
+    private final Unit[] cells;
+    private final OccupancyGrid occupancy;
+    // Только непустые ряды: x -> (y -> юнит)
+    private final NavigableMap<Integer, NavigableMap<Integer, Entry>> rows = new TreeMap<>();
+    private final List<List<Entry>> columns;
+    private final Map<Unit, Entry> entries = new IdentityHashMap<>();
+
+    public BattlefieldIndex(BattlefieldGeometry geometry) {
+        this.width = geometry.width();
+        this.height = geometry.height();
+        this.cells = new Unit[width * height];
+        this.occupancy = new OccupancyGrid(width, height);
+
+        // Списки колонок создаются при первом юните в них
+        this.columns = new ArrayList<>(height);
+        for (int y = 0; y < height; y++) {
+            columns.add(null);
+        }
+    }
+
+    public static BattlefieldIndex of(BattlefieldGeometry geometry, Army... armies) {
+        BattlefieldIndex index = new BattlefieldIndex(geometry);
+        for (Army army : armies) {
+            for (Unit unit : army.getUnits()) {
+                index.add(unit);
+            }
+        }
+        return index;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Живой юнит в своей текущей клетке; мёртвые юниты и юниты вне поля не индексируются
+    public synchronized boolean add(Unit unit) {
+        int x = unit.getxCoordinate();
+        int y = unit.getyCoordinate();
+        if (!unit.isAlive() || !occupancy.contains(x, y) || entries.containsKey(unit)
+                || cells[occupancy.index(x, y)] != null) {
+            return false;
+        }
+
+        place(new Entry(unit), x, y);
+        return true;
+    }
+
+    public synchronized boolean remove(Unit unit) {
+        Entry entry = entries.get(unit);
+        if (entry == null) {
+            return false;
+        }
+
+        unplace(entry);
+        entries.remove(unit);
+        return true;
+    }
+
+    // Перемещение в клетку другого живого юнита означает рассогласование с полем и отклоняется
+    // без изменения индекса; юнит, погибший или ушедший за край поля, из индекса убирается
+    @Override
+    public synchronized void onUnitMoved(Unit unit, int fromX, int fromY) {
+        Entry entry = entries.get(unit);
+        if (entry == null) {
+            add(unit);
+            return;
+        }
+
+        int x = unit.getxCoordinate();
+        int y = unit.getyCoordinate();
+        if (!unit.isAlive() || !occupancy.contains(x, y)) {
+            remove(unit);
+            return;
+        }
+
+        Unit occupant = cells[occupancy.index(x, y)];
+        if (occupant != null && occupant != unit) {
+            throw new IllegalStateException("Unit " + unit.getName() + " moved to (" + x + ", " + y
+                    + ") occupied by " + occupant.getName());
+        }
+
+        unplace(entry);
+        place(entry, x, y);
+    }
+
+    @Override
+    public synchronized void onUnitDied(Unit unit) {
+        remove(unit);
+    }
+
+    // Юнит в клетке или null
+    public synchronized Unit getUnitAt(int x, int y) {
+        return occupancy.contains(x, y) ? cells[occupancy.index(x, y)] : null;
+    }
+
+    public synchronized boolean isOccupied(int x, int y) {
+        return getUnitAt(x, y) != null;
+    }
+
+    // Юниты ряда x по возрастанию y (то же, что Program.getUnitsByRow, но без обхода всех юнитов)
+    public synchronized List<Unit> getUnitsInRow(int x) {
+        NavigableMap<Integer, Entry> row = rows.get(x);
+        return row == null ? List.of() : unitsOf(row.values());
+    }
+
+    public synchronized List<Unit> getUnitsInColumn(int y) {
+        return y >= 0 && y < height ? unitsOf(columns.get(y)) : List.of();
+    }
+
+    // Юниты в квадрате со стороной 2 * radius + 1 с центром в (x, y), кроме самой клетки центра
+    public synchronized List<Unit> getUnitsAround(int x, int y, int radius) {
+        List<Unit> units = new ArrayList<>();
+        if (radius < 0) {
+            return units;
+        }
+
+        // Обходятся только занятые ряды квадрата и только юниты внутри его колонок
+        for (NavigableMap<Integer, Entry> row : rows.subMap(x - radius, true, x + radius, true).values()) {
+            for (Entry entry : row.subMap(y - radius, true, y + radius, true).values()) {
+                if (entry.x != x || entry.y != y) {
+                    units.add(entry.unit);
+                }
+            }
+        }
+        return units;
+    }
+
+    // Препятствия для поиска пути: копия карты занятости без клеток атакующего и цели
+    public synchronized void fillObstacles(OccupancyGrid obstacles, Unit attacker, Unit target) {
+        obstacles.copyFrom(occupancy);
+        releaseCell(obstacles, attacker);
+        releaseCell(obstacles, target);
+    }
+
+    private void releaseCell(OccupancyGrid obstacles, Unit unit) {
+        if (unit == null) {
+            return;
+        }
+
+        Entry entry = entries.get(unit);
+        if (entry != null) {
+            obstacles.unblock(entry.x, entry.y);
+        }
+    }
+
+    private void place(Entry entry, int x, int y) {
+        entry.x = x;
+        entry.y = y;
+        cells[occupancy.index(x, y)] = entry.unit;
+        occupancy.block(x, y);
+        entries.put(entry.unit, entry);
+
+        rows.computeIfAbsent(x, row -> new TreeMap<>()).put(y, entry);
+        entry.columnPosition = append(columns, y, entry);
+    }
+
+    private void unplace(Entry entry) {
+        cells[occupancy.index(entry.x, entry.y)] = null;
+        occupancy.unblock(entry.x, entry.y);
+
+        NavigableMap<Integer, Entry> row = rows.get(entry.x);
+        row.remove(entry.y);
+        if (row.isEmpty()) {
+            rows.remove(entry.x);
+        }
+
+        List<Entry> column = columns.get(entry.y);
+        Entry lastInColumn = column.remove(column.size() - 1);
+        if (lastInColumn != entry) {
+            column.set(entry.columnPosition, lastInColumn);
+            lastInColumn.columnPosition = entry.columnPosition;
+        }
+    }
+
+    private static int append(List<List<Entry>> lines, int line, Entry entry) {
+        List<Entry> entries = lines.get(line);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            lines.set(line, entries);
+        }
+        entries.add(entry);
+        return entries.size() - 1;
+    }
+
+    private static List<Unit> unitsOf(Collection<Entry> entries) {
+        if (entries == null) {
+            return List.of();
+        }
+
+        List<Unit> units = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            units.add(entry.unit);
+        }
+        return units;
+    }
+
+    private static final class Entry {
+        private final Unit unit;
+        private int x;
+        private int y;
+        private int columnPosition;
+
+        private Entry(Unit unit) {
+            this.unit = unit;
+        }
+    }
+}
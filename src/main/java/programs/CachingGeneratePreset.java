@@ -0,0 +1,118 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.GeneratePreset;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// LRU-кэш пресетов перед любым GeneratePreset.
+// Ключ - отпечаток шаблонов (тип, характеристики и бонусы каждого шаблона по порядку) и бюджет,
+// значение - неизменяемый состав армии с расстановкой. Каждый запрос получает новые объекты Unit,
+// поэтому изменения армии в бою не портят кэш. Повторный запрос возвращает ту же расстановку,
+// которую делегат выбрал при первом вызове
+public class CachingGeneratePreset implements GeneratePreset {
+    private final GeneratePreset delegate;
+    private final Map<PresetKey, List<CachedUnit>> presets;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public CachingGeneratePreset(GeneratePreset delegate, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+
+        this.delegate = delegate;
+
+        // accessOrder = true: самый давно запрошенный пресет вытесняется первым
+        this.presets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PresetKey, List<CachedUnit>> eldest) {
+                if (size() > capacity) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Army generate(List<Unit> availableUnits, int budget) {
+        PresetKey key = new PresetKey(availableUnits.stream().map(TemplateFingerprint::of).toList(), budget);
+
+        List<CachedUnit> preset;
+        synchronized (this) {
+            preset = presets.get(key);
+            if (preset != null) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+
+        if (preset == null) {
+            preset = delegate.generate(availableUnits, budget).getUnits().stream()
+                    .map(CachedUnit::of)
+                    .toList();
+
+            synchronized (this) {
+                presets.put(key, preset);
+            }
+        }
+
+        Army army = new Army();
+        for (CachedUnit cachedUnit : preset) {
+            army.getUnits().add(cachedUnit.toUnit());
+        }
+        return army;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    // Доля запросов, обслуженных из кэша; 0, пока запросов не было
+    public synchronized double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    public synchronized int size() {
+        return presets.size();
+    }
+
+    private record PresetKey(List<TemplateFingerprint> templates, int budget) {}
+
+    // Всё, от чего зависит выбор состава; имя шаблона в пресет не попадает
+    private record TemplateFingerprint(UnitTemplate template, int health, int baseAttack) {
+        private static TemplateFingerprint of(Unit unit) {
+            return new TemplateFingerprint(UnitTemplate.of(unit), unit.getHealth(), unit.getBaseAttack());
+        }
+    }
+
+    private record CachedUnit(String name, UnitTemplate template, int health, int baseAttack, int x, int y) {
+        private static CachedUnit of(Unit unit) {
+            return new CachedUnit(unit.getName(), UnitTemplate.of(unit), unit.getHealth(), unit.getBaseAttack(),
+                    unit.getxCoordinate(), unit.getyCoordinate());
+        }
+
+        // Карты бонусов неизменяемые и общие для всех копий, как у BattleState
+        private Unit toUnit() {
+            return new Unit(name, template.unitType(), health, baseAttack, template.cost(),
+                    template.attackType(), template.attackBonuses(), template.defenceBonuses(), x, y);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// LRU-кэш путей перед любым UnitTargetPathFinder.
+// Ключ - клетки старта и цели и версия занятости поля: пока никто не сдвинулся и не погиб,
+// повторный запрос того же пути в раунде не запускает поиск заново.
+// Предполагается, что все запросы идут по одному и тому же набору юнитов (одному бою)
+public class CachingUnitTargetPathFinder implements UnitTargetPathFinder {
+    private final UnitTargetPathFinder delegate;
+    private final OccupancyTracker occupancyTracker;
+    private final Map<PathKey, List<Edge>> paths;
+
+    private long cachedVersion;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    public CachingUnitTargetPathFinder(UnitTargetPathFinder delegate,
+                                       OccupancyTracker occupancyTracker,
+                                       int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+
+        this.delegate = delegate;
+        this.occupancyTracker = occupancyTracker;
+        this.cachedVersion = occupancyTracker.getVersion();
+
+        // accessOrder = true: самый давно запрошенный путь вытесняется первым
+        this.paths = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PathKey, List<Edge>> eldest) {
+                if (size() > capacity) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public List<Edge> getTargetPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        long version = occupancyTracker.getVersion();
+        PathKey key = new PathKey(attacker.getxCoordinate(), attacker.getyCoordinate(),
+                target.getxCoordinate(), target.getyCoordinate(), version);
+
+        synchronized (this) {
+            // Пути старых версий уже никогда не совпадут с ключом, поэтому сбрасываются целиком
+            if (version != cachedVersion) {
+                invalidationCount += paths.size();
+                paths.clear();
+                cachedVersion = version;
+            }
+
+            List<Edge> path = paths.get(key);
+            if (path != null) {
+                hitCount++;
+                return path;
+            }
+            missCount++;
+        }
+
+        // Путь отдаётся всем запросившим, поэтому хранится неизменяемая копия
+        List<Edge> path = List.copyOf(delegate.getTargetPath(attacker, target, allUnits));
+
+        synchronized (this) {
+            if (version == cachedVersion) {
+                paths.put(key, path);
+            }
+        }
+
+        return path;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    // Пути, вытесненные из-за ограничения размера
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    // Пути, сброшенные из-за изменения занятости поля
+    public synchronized long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    public synchronized int size() {
+        return paths.size();
+    }
+
+    private record PathKey(int startX, int startY, int goalX, int goalY, long version) {}
+}
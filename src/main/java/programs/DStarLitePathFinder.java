@@ -0,0 +1,416 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Инкрементальный поиск пути D* Lite: для каждого атакующего хранится состояние обратного поиска от цели
+// (g, rhs и очередь). При следующем запросе той же цели карта препятствий из allUnits сравнивается
+// с картой прошлого запроса, и пересчитываются только вершины вокруг изменившихся клеток,
+// а сдвиг атакующего учитывается поправкой km к ключам. Смена цели или её клетки запускает поиск заново.
+// Пути кратчайшие, той же длины, что у UnitTargetPathFinderImpl
+public class DStarLitePathFinder implements UnitTargetPathFinder {
+    // Сколько клеток состояний поиска хранится одновременно: около 30 байт на клетку
+    private static final long PLANNER_CACHE_CELLS = 1L << 22;
+    private static final int INFINITY = 1 << 28;
+
+    // 8 направлений движения (включая диагонали)
+    private static final int[][] DIRECTIONS = {
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1},   // Вверх, вниз, влево, вправо
+            {-1, -1}, {1, 1}, {-1, 1}, {1, -1}  // Диагонали
+    };
+
+    private final BattlefieldGeometry geometry;
+    private final Map<Unit, Planner> planners;
+
+    private int expandedNodes;
+    private long fullSearchCount;
+    private long incrementalSearchCount;
+
+    public DStarLitePathFinder() {
+        this(BattlefieldGeometry.DEFAULT);
+    }
+
+    // Состояние занимает несколько массивов на клетку, поэтому на больших полях хранятся только недавние атакующие
+    public DStarLitePathFinder(BattlefieldGeometry geometry) {
+        this.geometry = geometry;
+        int capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, PLANNER_CACHE_CELLS / geometry.cellCount()));
+
+        // Unit не переопределяет equals, поэтому ключи сравниваются по ссылке
+        this.planners = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Unit, Planner> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // Число вершин, раскрытых при последнем запросе
+    public synchronized int getExpandedNodeCount() {
+        return expandedNodes;
+    }
+
+    // Запросы, для которых поиск начинался с нуля: новый атакующий, новая цель или цель сменила клетку
+    public synchronized long getFullSearchCount() {
+        return fullSearchCount;
+    }
+
+    // Запросы, обслуженные починкой состояния прошлого поиска
+    public synchronized long getIncrementalSearchCount() {
+        return incrementalSearchCount;
+    }
+
+    @Override
+    public List<Edge> getTargetPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        return findPath(attacker, target, allUnits).asEdges();
+    }
+
+    public synchronized PackedPath findPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        int startX = attacker.getxCoordinate();
+        int startY = attacker.getyCoordinate();
+        int targetX = target.getxCoordinate();
+        int targetY = target.getyCoordinate();
+
+        if (!geometry.contains(startX, startY) || !geometry.contains(targetX, targetY)) {
+            return noPath(attacker, target);
+        }
+
+        // Препятствия - живые юниты, кроме атакующего и цели, поэтому их собственные ходы карту не меняют
+        PathSearchScratch scratch = PathSearchScratch.acquire(geometry.width(), geometry.height());
+        OccupancyGrid obstacles = scratch.obstacles;
+        obstacles.fillObstacles(allUnits, attacker, target);
+
+        int startCell = geometry.index(startX, startY);
+        int targetCell = geometry.index(targetX, targetY);
+
+        Planner planner = planners.get(attacker);
+        if (planner == null) {
+            planner = new Planner();
+            planners.put(attacker, planner);
+        }
+
+        if (planner.target != target || planner.targetCell != targetCell) {
+            planner.initialize(target, targetCell, startCell, obstacles);
+            fullSearchCount++;
+        } else {
+            planner.moveStart(startCell);
+            planner.applyChanges(obstacles);
+            incrementalSearchCount++;
+        }
+
+        expandedNodes = planner.computeShortestPath();
+
+        // Старт может остаться с g = INFINITY: длина пути - его rhs, а сам путь идёт по g соседей
+        if (planner.rhs[startCell] >= INFINITY) {
+            return noPath(attacker, target);
+        }
+        return planner.extractPath();
+    }
+
+    private PackedPath noPath(Unit attacker, Unit target) {
+        System.out.println("Unit " + attacker.getName() +
+                " cannot find path to attack unit " + target.getName());
+        return PackedPath.empty();
+    }
+
+    // Расстояние Чебышёва: все 8 шагов стоят 1
+    private int heuristic(int fromCell, int toCell) {
+        int height = geometry.height();
+        return Math.max(Math.abs(fromCell / height - toCell / height), Math.abs(fromCell % height - toCell % height));
+    }
+
+    // Состояние D* Lite одного атакующего. g и rhs - расстояние до цели и его оценка по соседям,
+    // вершина с g != rhs лежит в очереди с ключом [min(g, rhs) + h + km; min(g, rhs)]
+    private final class Planner {
+        private final int[] g;
+        private final int[] rhs;
+        private final KeyedQueue queue;
+        private final OccupancyGrid obstacles;
+        private final int[] changedCells;
+        private int changedCount;
+
+        private Unit target;
+        private int targetCell = -1;
+        private int startCell;
+        private int keyModifier;
+
+        private Planner() {
+            int cellCount = geometry.cellCount();
+            this.g = new int[cellCount];
+            this.rhs = new int[cellCount];
+            this.queue = new KeyedQueue(cellCount);
+            this.obstacles = new OccupancyGrid(geometry.width(), geometry.height());
+            this.changedCells = new int[cellCount];
+        }
+
+        private void initialize(Unit target, int targetCell, int startCell, OccupancyGrid currentObstacles) {
+            this.target = target;
+            this.targetCell = targetCell;
+            this.startCell = startCell;
+            this.keyModifier = 0;
+            obstacles.copyFrom(currentObstacles);
+
+            Arrays.fill(g, INFINITY);
+            Arrays.fill(rhs, INFINITY);
+            queue.clear();
+
+            rhs[targetCell] = 0;
+            queue.insertOrUpdate(targetCell, key(targetCell));
+        }
+
+        // Ключи в очереди посчитаны от прежнего старта; km сохраняет их нижними оценками
+        private void moveStart(int newStartCell) {
+            keyModifier += heuristic(startCell, newStartCell);
+            startCell = newStartCell;
+        }
+
+        // Занятые и освободившиеся клетки меняют стоимость рёбер самой клетки и её соседей
+        private void applyChanges(OccupancyGrid currentObstacles) {
+            changedCount = 0;
+            obstacles.updateFrom(currentObstacles, cell -> changedCells[changedCount++] = cell);
+
+            int height = geometry.height();
+            for (int i = 0; i < changedCount; i++) {
+                int cell = changedCells[i];
+                updateVertex(cell);
+
+                int x = cell / height;
+                int y = cell % height;
+                for (int[] direction : DIRECTIONS) {
+                    int neighborX = x + direction[0];
+                    int neighborY = y + direction[1];
+                    if (geometry.contains(neighborX, neighborY)) {
+                        updateVertex(geometry.index(neighborX, neighborY));
+                    }
+                }
+            }
+        }
+
+        private int computeShortestPath() {
+            int expanded = 0;
+            int height = geometry.height();
+
+            while (!queue.isEmpty() && (queue.topKey() < key(startCell) || rhs[startCell] > g[startCell])) {
+                int cell = queue.top();
+                long oldKey = queue.topKey();
+                long newKey = key(cell);
+                expanded++;
+
+                if (oldKey < newKey) {
+                    queue.insertOrUpdate(cell, newKey);
+                    continue;
+                }
+
+                int x = cell / height;
+                int y = cell % height;
+                if (g[cell] > rhs[cell]) {
+                    // Вершина стала согласованной: соседи могут пройти через неё
+                    g[cell] = rhs[cell];
+                    queue.remove(cell);
+                } else {
+                    // Путь через вершину подорожал: она и соседи пересчитываются
+                    g[cell] = INFINITY;
+                    updateVertex(cell);
+                }
+
+                for (int[] direction : DIRECTIONS) {
+                    int neighborX = x + direction[0];
+                    int neighborY = y + direction[1];
+                    if (geometry.contains(neighborX, neighborY)) {
+                        updateVertex(geometry.index(neighborX, neighborY));
+                    }
+                }
+            }
+
+            return expanded;
+        }
+
+        private void updateVertex(int cell) {
+            if (cell != targetCell) {
+                rhs[cell] = bestNeighborDistance(cell);
+            }
+
+            if (g[cell] != rhs[cell]) {
+                queue.insertOrUpdate(cell, key(cell));
+            } else {
+                queue.remove(cell);
+            }
+        }
+
+        // min(1 + g) по проходимым соседям; занятая клетка недостижима
+        private int bestNeighborDistance(int cell) {
+            int height = geometry.height();
+            int x = cell / height;
+            int y = cell % height;
+            if (obstacles.isBlocked(x, y)) {
+                return INFINITY;
+            }
+
+            int best = INFINITY;
+            for (int[] direction : DIRECTIONS) {
+                int neighborX = x + direction[0];
+                int neighborY = y + direction[1];
+                if (obstacles.isPassable(neighborX, neighborY)) {
+                    best = Math.min(best, g[geometry.index(neighborX, neighborY)] + 1);
+                }
+            }
+            return Math.min(best, INFINITY);
+        }
+
+        private long key(int cell) {
+            int distance = Math.min(g[cell], rhs[cell]);
+            return ((long) (distance + heuristic(startCell, cell) + keyModifier) << 32) | distance;
+        }
+
+        // Спуск от старта к соседу с наименьшим g: после computeShortestPath он даёт кратчайший путь длины rhs старта
+        private PackedPath extractPath() {
+            int height = geometry.height();
+            int[] cells = new int[rhs[startCell] + 1];
+            cells[0] = startCell;
+
+            for (int i = 1; i < cells.length; i++) {
+                int cell = cells[i - 1];
+                int x = cell / height;
+                int y = cell % height;
+                int next = -1;
+
+                for (int[] direction : DIRECTIONS) {
+                    int neighborX = x + direction[0];
+                    int neighborY = y + direction[1];
+                    if (!obstacles.isPassable(neighborX, neighborY)) {
+                        continue;
+                    }
+
+                    int neighborCell = geometry.index(neighborX, neighborY);
+                    if (next == -1 || g[neighborCell] < g[next]) {
+                        next = neighborCell;
+                    }
+                }
+                cells[i] = next;
+            }
+
+            return new PackedPath(cells, height);
+        }
+    }
+
+    // Двоичная куча вершин с ключами long (старшие 32 бита - первая часть ключа D* Lite, младшие - вторая)
+    // и изменением ключа в обе стороны и удалением по индексу клетки
+    private static final class KeyedQueue {
+        private static final int ABSENT = -1;
+
+        private final int[] heap;
+        private final long[] keys;
+        private final int[] positions;
+        private int size;
+
+        private KeyedQueue(int capacity) {
+            this.heap = new int[capacity];
+            this.keys = new long[capacity];
+            this.positions = new int[capacity];
+            Arrays.fill(positions, ABSENT);
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private int top() {
+            return heap[0];
+        }
+
+        private long topKey() {
+            return keys[heap[0]];
+        }
+
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                positions[heap[i]] = ABSENT;
+            }
+            size = 0;
+        }
+
+        private void insertOrUpdate(int cell, long key) {
+            int position = positions[cell];
+
+            if (position == ABSENT) {
+                heap[size] = cell;
+                keys[cell] = key;
+                positions[cell] = size;
+                siftUp(size++);
+            } else if (key < keys[cell]) {
+                keys[cell] = key;
+                siftUp(position);
+            } else if (key > keys[cell]) {
+                keys[cell] = key;
+                siftDown(position);
+            }
+        }
+
+        private void remove(int cell) {
+            int position = positions[cell];
+            if (position == ABSENT) {
+                return;
+            }
+
+            positions[cell] = ABSENT;
+            size--;
+            if (position == size) {
+                return;
+            }
+
+            int last = heap[size];
+            heap[position] = last;
+            positions[last] = position;
+            siftUp(position);
+            siftDown(positions[last]);
+        }
+
+        private void siftUp(int position) {
+            int cell = heap[position];
+            long key = keys[cell];
+
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                int parentCell = heap[parent];
+                if (keys[parentCell] <= key) {
+                    break;
+                }
+                heap[position] = parentCell;
+                positions[parentCell] = position;
+                position = parent;
+            }
+
+            heap[position] = cell;
+            positions[cell] = position;
+        }
+
+        private void siftDown(int position) {
+            int cell = heap[position];
+            long key = keys[cell];
+
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                    child++;
+                }
+                if (keys[heap[child]] >= key) {
+                    break;
+                }
+                heap[position] = heap[child];
+                positions[heap[child]] = position;
+                position = child;
+            }
+
+            heap[position] = cell;
+            positions[cell] = position;
+        }
+    }
+}
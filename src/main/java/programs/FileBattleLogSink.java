@@ -0,0 +1,48 @@
+package programs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Пишет журнал в текстовый файл; пачка записей уходит в буфер одним вызовом
+public final class FileBattleLogSink implements BattleLogSink {
+    private final BufferedWriter writer;
+
+    public FileBattleLogSink(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void write(List<BattleLogEntry> batch) {
+        try {
+            for (BattleLogEntry entry : batch) {
+                writer.write(entry.format());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
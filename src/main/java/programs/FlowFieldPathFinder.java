@@ -0,0 +1,183 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Поле расстояний до цели (flow field), общее для всех атакующих этой цели.
+// Один обратный поиск в ширину от цели даёт расстояние из каждой клетки, после чего путь любого
+// атакующего читается спуском по полю за O(длины пути). Поля хранятся по целям, пока не изменится
+// версия занятости поля из OccupancyTracker
+public class FlowFieldPathFinder implements UnitTargetPathFinder {
+    private static final int UNREACHABLE = -1;
+
+    // 8 направлений движения (включая диагонали)
+    private static final int[][] DIRECTIONS = {
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1},   // Вверх, вниз, влево, вправо
+            {-1, -1}, {1, 1}, {-1, 1}, {1, -1}  // Диагонали
+    };
+
+    // Сколько клеток полей расстояний хранится одновременно: 16M клеток - 64 МБ int[]
+    private static final long FIELD_CACHE_CELLS = 1L << 24;
+
+    private final BattlefieldGeometry geometry;
+    private final OccupancyTracker occupancyTracker;
+    private final int maxFields;
+    private final Map<Unit, FlowField> fields;
+    private long fieldsVersion;
+    private long builtFieldCount;
+
+    public FlowFieldPathFinder(OccupancyTracker occupancyTracker) {
+        this(BattlefieldGeometry.DEFAULT, occupancyTracker);
+    }
+
+    // Поле занимает int на клетку, поэтому на больших полях хранятся только недавно запрошенные цели
+    public FlowFieldPathFinder(BattlefieldGeometry geometry, OccupancyTracker occupancyTracker) {
+        this.geometry = geometry;
+        this.occupancyTracker = occupancyTracker;
+        this.fieldsVersion = occupancyTracker.getVersion();
+        this.maxFields = (int) Math.max(1, Math.min(Integer.MAX_VALUE, FIELD_CACHE_CELLS / geometry.cellCount()));
+
+        // Unit не переопределяет equals, поэтому ключи сравниваются по ссылке, как в IdentityHashMap
+        this.fields = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Unit, FlowField> eldest) {
+                return size() > maxFields;
+            }
+        };
+    }
+
+    @Override
+    public List<Edge> getTargetPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        return findPath(attacker, target, allUnits).asEdges();
+    }
+
+    public PackedPath findPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        FlowField field = getField(target, allUnits);
+
+        int x = attacker.getxCoordinate();
+        int y = attacker.getyCoordinate();
+
+        // Клетка атакующего в поле занята им самим, поэтому длина пути считается от лучшего соседа
+        int firstStep = field.bestNeighbor(x, y);
+        if (firstStep == UNREACHABLE) {
+            System.out.println("Unit " + attacker.getName() +
+                    " cannot find path to attack unit " + target.getName());
+            return PackedPath.empty();
+        }
+
+        int[] cells = new int[field.distances[firstStep] + 2];
+        cells[0] = geometry.index(x, y);
+        cells[1] = firstStep;
+
+        // Дальше каждый шаг уменьшает расстояние до цели ровно на 1
+        int height = geometry.height();
+        for (int i = 2; i < cells.length; i++) {
+            cells[i] = field.bestNeighbor(cells[i - 1] / height, cells[i - 1] % height);
+        }
+
+        return new PackedPath(cells, geometry.height());
+    }
+
+    // Сколько полей было построено с момента создания; остальные запросы обслужены готовыми полями
+    public synchronized long getBuiltFieldCount() {
+        return builtFieldCount;
+    }
+
+    private synchronized FlowField getField(Unit target, List<Unit> allUnits) {
+        long version = occupancyTracker.getVersion();
+        if (version != fieldsVersion) {
+            fields.clear();
+            fieldsVersion = version;
+        }
+
+        int targetCell = geometry.index(target.getxCoordinate(), target.getyCoordinate());
+        FlowField field = fields.get(target);
+
+        if (field == null || field.targetCell != targetCell) {
+            field = buildField(target, targetCell, allUnits);
+            fields.put(target, field);
+            builtFieldCount++;
+        }
+
+        return field;
+    }
+
+    // Обратный поиск в ширину от цели; препятствия - все живые юниты, кроме цели
+    private FlowField buildField(Unit target, int targetCell, List<Unit> allUnits) {
+        PathSearchScratch scratch = PathSearchScratch.acquire(geometry.width(), geometry.height());
+        OccupancyGrid obstacles = scratch.obstacles;
+        obstacles.fillObstacles(allUnits, null, target);
+
+        int[] distances = new int[geometry.cellCount()];
+        Arrays.fill(distances, UNREACHABLE);
+
+        int[] queue = scratch.queue;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = targetCell;
+        distances[targetCell] = 0;
+
+        while (head < tail) {
+            int currentCell = queue[head++];
+            int currentX = currentCell / geometry.height();
+            int currentY = currentCell % geometry.height();
+
+            for (int[] direction : DIRECTIONS) {
+                int neighborX = currentX + direction[0];
+                int neighborY = currentY + direction[1];
+
+                if (!obstacles.isPassable(neighborX, neighborY)) {
+                    continue;
+                }
+
+                int neighborCell = obstacles.index(neighborX, neighborY);
+                if (distances[neighborCell] == UNREACHABLE) {
+                    distances[neighborCell] = distances[currentCell] + 1;
+                    queue[tail++] = neighborCell;
+                }
+            }
+        }
+
+        return new FlowField(geometry, targetCell, distances);
+    }
+
+    private static final class FlowField {
+        private final BattlefieldGeometry geometry;
+        private final int targetCell;
+        private final int[] distances;
+
+        private FlowField(BattlefieldGeometry geometry, int targetCell, int[] distances) {
+            this.geometry = geometry;
+            this.targetCell = targetCell;
+            this.distances = distances;
+        }
+
+        // Соседняя клетка с наименьшим расстоянием до цели или UNREACHABLE
+        private int bestNeighbor(int x, int y) {
+            int best = UNREACHABLE;
+
+            for (int[] direction : DIRECTIONS) {
+                int neighborX = x + direction[0];
+                int neighborY = y + direction[1];
+
+                if (!geometry.contains(neighborX, neighborY)) {
+                    continue;
+                }
+
+                int neighborCell = geometry.index(neighborX, neighborY);
+                int distance = distances[neighborCell];
+                if (distance != UNREACHABLE && (best == UNREACHABLE || distance < distances[best])) {
+                    best = neighborCell;
+                }
+            }
+
+            return best;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package programs;
+
+import java.util.Random;
+
+// Раздаёт случайные свободные клетки прямоугольной зоны за O(1).
+// Свободные клетки лежат в начале массива slots; выдача берёт случайную из них и меняет её местами
+// с последней свободной (частичная перетасовка Фишера-Йетса), поэтому клетки не повторяются,
+// а выдача не может не найти клетку, пока в зоне есть место
+final class FreeCellAllocator {
+    private final int height;
+    private final int[] slots;
+    private int freeCount;
+
+    // width - размер зоны по x, height - по y
+    FreeCellAllocator(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Zone size must be positive: " + width + "x" + height);
+        }
+
+        this.height = height;
+        this.slots = new int[width * height];
+        for (int cell = 0; cell < slots.length; cell++) {
+            slots[cell] = cell;
+        }
+        this.freeCount = slots.length;
+    }
+
+    boolean hasFreeCell() {
+        return freeCount > 0;
+    }
+
+    int getFreeCount() {
+        return freeCount;
+    }
+
+    // Номер клетки x * height + y
+    int allocate(Random random) {
+        if (freeCount == 0) {
+            throw new IllegalStateException("No free cells left in the zone");
+        }
+
+        int position = random.nextInt(freeCount);
+        int cell = slots[position];
+        slots[position] = slots[freeCount - 1];
+        slots[freeCount - 1] = cell;
+        freeCount--;
+        return cell;
+    }
+
+    int getX(int cell) {
+        return cell / height;
+    }
+
+    int getY(int cell) {
+        return cell % height;
+    }
+}
@@ -8,21 +8,53 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class GeneratePresetImpl implements GeneratePreset {
-    private static final int MAX_RETRY_COUNT = 100;
-    private static final int MAX_UNITS_PER_TYPE = 11;
-    private static final int BOARD_WIDTH = 21;
-    private static final int BOARD_HEIGHT = 3;
+    static final int MAX_UNITS_PER_TYPE = 11;
+
+    // Зона расстановки: boardHeight клеток по x и boardWidth клеток по y
+    private final int boardWidth;
+    private final int boardHeight;
+    private PresetStrategy presetStrategy = PresetStrategy.GREEDY;
+
+    public GeneratePresetImpl() {
+        this(BattlefieldGeometry.DEFAULT);
+    }
+
+    // Зона расстановки армии: armyDepth рядов по x на всю высоту поля по y
+    public GeneratePresetImpl(BattlefieldGeometry geometry) {
+        this(geometry.height(), geometry.armyDepth());
+    }
+
+    public GeneratePresetImpl(int boardWidth, int boardHeight) {
+        if (boardWidth <= 0 || boardHeight <= 0) {
+            throw new IllegalArgumentException("Deployment zone must be positive: " + boardWidth + "x" + boardHeight);
+        }
+
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+    }
+
+    public void setPresetStrategy(PresetStrategy presetStrategy) {
+        this.presetStrategy = presetStrategy;
+    }
 
     public Army generate(List<Unit> availableUnits, int budget) {
+        if (presetStrategy == PresetStrategy.OPTIMAL) {
+            return generateOptimal(availableUnits, budget);
+        }
+
         Army army = new Army();
         List<Unit> placedUnits = new ArrayList<>();
         Map<String, Integer> unitTypeCount = new HashMap<>();
         Random random = new Random();
+        FreeCellAllocator freeCells = new FreeCellAllocator(boardHeight, boardWidth);
         int usedPoints = 0;
 
-        // Сортируем юниты по эффективности (атака/стоимость, затем здоровье/стоимость)
+        // Сортируем юниты по эффективности (атака/стоимость, затем здоровье/стоимость);
+        // отношения считаются один раз на юнит, а не при каждом сравнении
         List<Unit> sortedUnits = availableUnits.stream()
-                .sorted(this::compareUnitEfficiency)
+                .map(UnitEfficiency::of)
+                .sorted()
+                .map(UnitEfficiency::unit)
                 .collect(Collectors.toCollection(LinkedList::new));
 
         while (budget > 0 && !sortedUnits.isEmpty()) {
@@ -33,17 +65,16 @@ public class GeneratePresetImpl implements GeneratePreset {
 
             // Проверяем можно ли добавить юнит этого типа
             if (currentCount < MAX_UNITS_PER_TYPE && budget >= cost) {
-                Optional<Coordinates> coordinates = findAvailableCoordinates(
-                        placedUnits, unitType, random, 0);
-
-                if (coordinates.isPresent()) {
+                // Клетка выдаётся за O(1) и всегда находится, пока в зоне есть место
+                if (freeCells.hasFreeCell()) {
+                    int cell = freeCells.allocate(random);
                     currentCount++;
                     unitTypeCount.put(unitType, currentCount);
 
                     // Создаем новый юнит с уникальным именем и координатами
                     String uniqueName = unitType + " " + currentCount;
                     Unit newUnit = createUnitWithCoordinates(template, uniqueName,
-                            coordinates.get().x(), coordinates.get().y());
+                            freeCells.getX(cell), freeCells.getY(cell));
 
                     placedUnits.add(newUnit);
                     army.getUnits().add(newUnit);
@@ -68,36 +99,38 @@ public class GeneratePresetImpl implements GeneratePreset {
         return army;
     }
 
-    private Optional<Coordinates> findAvailableCoordinates(List<Unit> placedUnits,
-                                                           String unitType,
-                                                           Random random,
-                                                           int attempt) {
-        for (int i = attempt; i < MAX_RETRY_COUNT; i++) {
-            int x = random.nextInt(BOARD_HEIGHT);
-            int y = random.nextInt(BOARD_WIDTH);
+    // Состав берётся из точного решения рюкзака; если зона меньше состава, лишние юниты не ставятся
+    private Army generateOptimal(List<Unit> availableUnits, int budget) {
+        Army army = new Army();
+        Random random = new Random();
+        FreeCellAllocator freeCells = new FreeCellAllocator(boardHeight, boardWidth);
+        int usedPoints = 0;
 
-            boolean positionOccupied = placedUnits.stream()
-                    .anyMatch(unit -> unit.getxCoordinate() == x && unit.getyCoordinate() == y);
+        int boundedBudget = Math.max(budget, 0);
+        PresetOptimizer.Composition composition =
+                new PresetOptimizer(availableUnits, boundedBudget).getComposition(boundedBudget);
 
-            if (!positionOccupied) {
-                return Optional.of(new Coordinates(x, y));
-            }
-        }
+        for (Map.Entry<Unit, Integer> entry : composition.unitCounts().entrySet()) {
+            Unit template = entry.getKey();
 
-        return Optional.empty();
-    }
+            for (int number = 1; number <= entry.getValue(); number++) {
+                if (!freeCells.hasFreeCell()) {
+                    System.out.println("No available coordinates found for: " + template.getUnitType());
+                    break;
+                }
 
-    private int compareUnitEfficiency(Unit unit1, Unit unit2) {
-        double efficiency1 = (double) unit1.getBaseAttack() / unit1.getCost();
-        double efficiency2 = (double) unit2.getBaseAttack() / unit2.getCost();
+                int cell = freeCells.allocate(random);
+                String uniqueName = template.getUnitType() + " " + number;
+                army.getUnits().add(createUnitWithCoordinates(template, uniqueName,
+                        freeCells.getX(cell), freeCells.getY(cell)));
+                usedPoints += template.getCost();
 
-        if (Double.compare(efficiency2, efficiency1) != 0) {
-            return Double.compare(efficiency2, efficiency1);
+                System.out.println("Added " + army.getUnits().size() + " unit: " + uniqueName);
+            }
         }
 
-        double durability1 = (double) unit1.getHealth() / unit1.getCost();
-        double durability2 = (double) unit2.getHealth() / unit2.getCost();
-        return Double.compare(durability2, durability1);
+        System.out.println("Used points: " + usedPoints);
+        return army;
     }
 
     private Unit createUnitWithCoordinates(Unit template, String name, int x, int y) {
@@ -115,5 +148,23 @@ public class GeneratePresetImpl implements GeneratePreset {
         );
     }
 
-    private record Coordinates(int x, int y) {}
-}
\ No newline at end of file
+    private record UnitEfficiency(Unit unit, double attackPerCost, double healthPerCost)
+            implements Comparable<UnitEfficiency> {
+
+        private static UnitEfficiency of(Unit unit) {
+            return new UnitEfficiency(unit,
+                    (double) unit.getBaseAttack() / unit.getCost(),
+                    (double) unit.getHealth() / unit.getCost());
+        }
+
+        // По убыванию атаки на единицу стоимости, затем здоровья на единицу стоимости
+        @Override
+        public int compareTo(UnitEfficiency other) {
+            int byAttack = Double.compare(other.attackPerCost, attackPerCost);
+            if (byAttack != 0) {
+                return byAttack;
+            }
+            return Double.compare(other.healthPerCost, healthPerCost);
+        }
+    }
+}
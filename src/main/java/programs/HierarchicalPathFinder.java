@@ -0,0 +1,599 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Иерархический поиск пути (HPA*) для больших полей.
+// Поле делится на квадратные кластеры. На каждом непрерывном проходимом участке общей границы двух
+// кластеров выбираются входы, а расстояния между входами одного кластера считаются заранее.
+// Запрос ищет путь A* по графу входов и только потом восстанавливает клетки поиском в ширину
+// внутри кластеров найденного пути. Участки у старта и цели просматриваются по клеткам в окрестности
+// 3 x 3 кластера, поэтому путь находится всегда, когда он есть, но может быть на несколько шагов
+// длиннее кратчайшего.
+// Граф строится по занятости поля из allUnits. Каждый запрос сравнивает её с картой прошлого запроса,
+// и только кластеры вокруг изменившихся клеток (перемещение или гибель любого юнита) пересчитываются
+public class HierarchicalPathFinder implements UnitTargetPathFinder {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    private static final int NO_CELL = -1;
+    // Предшественник входа, до которого дошли напрямую от старта
+    private static final int START = -2;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    // Участок границы такой длины и длиннее получает два входа у концов, короче - один в середине
+    private static final int LONG_ENTRANCE = 6;
+
+    // 8 направлений движения (включая диагонали)
+    private static final int[][] DIRECTIONS = {
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1},   // Вверх, вниз, влево, вправо
+            {-1, -1}, {1, 1}, {-1, 1}, {1, -1}  // Диагонали
+    };
+
+    private final BattlefieldGeometry geometry;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterColumns;
+    private final OccupancyGrid occupancy;
+
+    // Для кластера: клетки входов, матрица расстояний между ними и переходы каждого входа в соседние кластеры
+    private final int[][] clusterNodes;
+    private final int[][] clusterDistances;
+    private final int[][][] clusterLinks;
+    // Позиция входа в массиве своего кластера или NO_CELL, если клетка не вход
+    private final int[] nodePositions;
+
+    private final boolean[] dirtyClusters;
+    private final int[] dirtyQueue;
+    private int dirtyCount;
+    private boolean built;
+
+    private final LocalSearch startSearch;
+    private final LocalSearch targetSearch;
+    private final LocalSearch clusterSearch;
+
+    private int expandedNodes;
+    private long rebuiltClusterCount;
+
+    public HierarchicalPathFinder(BattlefieldGeometry geometry) {
+        this(geometry, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathFinder(BattlefieldGeometry geometry, int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        }
+
+        this.geometry = geometry;
+        this.clusterSize = clusterSize;
+        this.clusterRows = (geometry.width() + clusterSize - 1) / clusterSize;
+        this.clusterColumns = (geometry.height() + clusterSize - 1) / clusterSize;
+        this.occupancy = new OccupancyGrid(geometry.width(), geometry.height());
+
+        int clusterCount = clusterRows * clusterColumns;
+        this.clusterNodes = new int[clusterCount][0];
+        this.clusterDistances = new int[clusterCount][0];
+        this.clusterLinks = new int[clusterCount][0][];
+        this.nodePositions = new int[geometry.cellCount()];
+        Arrays.fill(nodePositions, NO_CELL);
+
+        this.dirtyClusters = new boolean[clusterCount];
+        this.dirtyQueue = new int[clusterCount];
+
+        // Окрестность старта и цели - до 3 x 3 кластеров, внутренние поиски - один кластер
+        int regionSide = 3 * clusterSize;
+        this.startSearch = new LocalSearch(regionSide * regionSide);
+        this.targetSearch = new LocalSearch(regionSide * regionSide);
+        this.clusterSearch = new LocalSearch(clusterSize * clusterSize);
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    // Число клеток поиска у старта и цели плюс раскрытых входов при последнем запросе
+    public synchronized int getExpandedNodeCount() {
+        return expandedNodes;
+    }
+
+    // Сколько раз кластеры пересчитывались, включая первое построение
+    public synchronized long getRebuiltClusterCount() {
+        return rebuiltClusterCount;
+    }
+
+    @Override
+    public List<Edge> getTargetPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        return findPath(attacker, target, allUnits).asEdges();
+    }
+
+    public synchronized PackedPath findPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        int startX = attacker.getxCoordinate();
+        int startY = attacker.getyCoordinate();
+        int targetX = target.getxCoordinate();
+        int targetY = target.getyCoordinate();
+
+        if (!geometry.contains(startX, startY) || !geometry.contains(targetX, targetY)) {
+            return noPath(attacker, target);
+        }
+
+        PathSearchScratch scratch = PathSearchScratch.acquire(geometry.width(), geometry.height());
+        synchronizeOccupancy(scratch.obstacles, allUnits);
+        repairDirtyClusters();
+
+        int startCell = geometry.index(startX, startY);
+        int targetCell = geometry.index(targetX, targetY);
+
+        // Клетки вокруг старта (цель проходима) и вокруг цели: расстояния до ближних входов и прямой путь
+        setRegionBounds(startSearch, startX, startY);
+        startSearch.search(startCell, targetCell, targetCell);
+        setRegionBounds(targetSearch, targetX, targetY);
+        targetSearch.search(targetCell, NO_CELL, NO_CELL);
+
+        int bestLength = startSearch.distanceTo(targetCell);
+        int bestNode = START;
+        int expanded = startSearch.getVisitedCount() + targetSearch.getVisitedCount();
+
+        // A* по входам; старт соединён с входами своей окрестности найденными расстояниями
+        IndexedMinHeap openSet = scratch.heap;
+        seedStartNodes(scratch, startX, startY, targetX, targetY);
+
+        while (!openSet.isEmpty()) {
+            int currentCell = openSet.poll();
+            int distance = scratch.distances[currentCell];
+
+            // Эвристика допустима, поэтому остальные входы не дадут пути короче найденного
+            if (distance + heuristic(currentCell, targetX, targetY) >= bestLength) {
+                break;
+            }
+
+            scratch.close(currentCell);
+            expanded++;
+
+            int toTarget = targetSearch.distanceTo(currentCell);
+            if (toTarget != UNREACHABLE && distance + toTarget < bestLength) {
+                bestLength = distance + toTarget;
+                bestNode = currentCell;
+            }
+
+            int cluster = clusterOf(currentCell);
+            int position = nodePositions[currentCell];
+            int[] nodes = clusterNodes[cluster];
+            int[] distances = clusterDistances[cluster];
+
+            for (int other = 0; other < nodes.length; other++) {
+                int cost = distances[position * nodes.length + other];
+                if (other != position && cost != UNREACHABLE) {
+                    relax(scratch, nodes[other], distance + cost, currentCell, targetX, targetY);
+                }
+            }
+            for (int linkedCell : clusterLinks[cluster][position]) {
+                relax(scratch, linkedCell, distance + 1, currentCell, targetX, targetY);
+            }
+        }
+
+        expandedNodes = expanded;
+
+        if (bestLength == UNREACHABLE) {
+            return noPath(attacker, target);
+        }
+        return refinePath(scratch, startCell, targetCell, bestNode, bestLength);
+    }
+
+    // Карта графа приводится к живым юнитам allUnits (вместе с атакующим и целью): изменившиеся клетки
+    // помечают свои кластеры, при первом запросе помечаются все
+    private void synchronizeOccupancy(OccupancyGrid currentOccupancy, List<Unit> allUnits) {
+        currentOccupancy.fillObstacles(allUnits, null, null);
+
+        if (!built) {
+            occupancy.copyFrom(currentOccupancy);
+            for (int cluster = 0; cluster < dirtyClusters.length; cluster++) {
+                markDirty(cluster);
+            }
+            built = true;
+            return;
+        }
+
+        occupancy.updateFrom(currentOccupancy, this::markCellChanged);
+    }
+
+    // Клетка на краю кластера меняет входы общей границы, то есть и соседний кластер
+    private void markCellChanged(int cell) {
+        int x = cell / geometry.height();
+        int y = cell % geometry.height();
+        int clusterX = x / clusterSize;
+        int clusterY = y / clusterSize;
+        int fromDx = x == clusterX * clusterSize ? -1 : 0;
+        int toDx = x == (clusterX + 1) * clusterSize - 1 ? 1 : 0;
+        int fromDy = y == clusterY * clusterSize ? -1 : 0;
+        int toDy = y == (clusterY + 1) * clusterSize - 1 ? 1 : 0;
+
+        for (int dx = fromDx; dx <= toDx; dx++) {
+            for (int dy = fromDy; dy <= toDy; dy++) {
+                int neighborX = clusterX + dx;
+                int neighborY = clusterY + dy;
+                if (neighborX >= 0 && neighborX < clusterRows && neighborY >= 0 && neighborY < clusterColumns) {
+                    markDirty(neighborX * clusterColumns + neighborY);
+                }
+            }
+        }
+    }
+
+    private void markDirty(int cluster) {
+        if (!dirtyClusters[cluster]) {
+            dirtyClusters[cluster] = true;
+            dirtyQueue[dirtyCount++] = cluster;
+        }
+    }
+
+    private void repairDirtyClusters() {
+        for (int i = 0; i < dirtyCount; i++) {
+            int cluster = dirtyQueue[i];
+            dirtyClusters[cluster] = false;
+            rebuildCluster(cluster / clusterColumns, cluster % clusterColumns);
+        }
+        dirtyCount = 0;
+    }
+
+    // Входы кластера собираются со всех 8 соседей, затем расстояния между ними - поиском в ширину внутри кластера
+    private void rebuildCluster(int clusterX, int clusterY) {
+        int cluster = clusterX * clusterColumns + clusterY;
+        for (int cell : clusterNodes[cluster]) {
+            nodePositions[cell] = NO_CELL;
+        }
+
+        Map<Integer, List<Integer>> links = new LinkedHashMap<>();
+        TransitionSink ownFirst = (ownCell, otherCell) ->
+                links.computeIfAbsent(ownCell, cell -> new ArrayList<>()).add(otherCell);
+        TransitionSink ownSecond = (otherCell, ownCell) ->
+                links.computeIfAbsent(ownCell, cell -> new ArrayList<>()).add(otherCell);
+
+        // Переходы каждой пары кластеров перечисляются от меньшего кластера, поэтому совпадают с обеих сторон
+        if (clusterX + 1 < clusterRows) {
+            addRowBorderTransitions(clusterX, clusterY, ownFirst);
+        }
+        if (clusterX > 0) {
+            addRowBorderTransitions(clusterX - 1, clusterY, ownSecond);
+        }
+        if (clusterY + 1 < clusterColumns) {
+            addColumnBorderTransitions(clusterX, clusterY, ownFirst);
+        }
+        if (clusterY > 0) {
+            addColumnBorderTransitions(clusterX, clusterY - 1, ownSecond);
+        }
+        if (clusterX + 1 < clusterRows && clusterY + 1 < clusterColumns) {
+            addCornerTransition(clusterX, clusterY, 1, ownFirst);
+        }
+        if (clusterX > 0 && clusterY > 0) {
+            addCornerTransition(clusterX - 1, clusterY - 1, 1, ownSecond);
+        }
+        if (clusterX + 1 < clusterRows && clusterY > 0) {
+            addCornerTransition(clusterX, clusterY, -1, ownFirst);
+        }
+        if (clusterX > 0 && clusterY + 1 < clusterColumns) {
+            addCornerTransition(clusterX - 1, clusterY + 1, -1, ownSecond);
+        }
+
+        int[] nodes = new int[links.size()];
+        int[][] nodeLinks = new int[links.size()][];
+        int position = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : links.entrySet()) {
+            nodes[position] = entry.getKey();
+            nodeLinks[position] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            nodePositions[nodes[position]] = position;
+            position++;
+        }
+
+        int[] distances = new int[nodes.length * nodes.length];
+        setClusterBounds(clusterSearch, clusterX, clusterY);
+        for (int from = 0; from < nodes.length; from++) {
+            clusterSearch.search(nodes[from], NO_CELL, NO_CELL);
+            for (int to = 0; to < nodes.length; to++) {
+                distances[from * nodes.length + to] = clusterSearch.distanceTo(nodes[to]);
+            }
+        }
+
+        clusterNodes[cluster] = nodes;
+        clusterDistances[cluster] = distances;
+        clusterLinks[cluster] = nodeLinks;
+        rebuiltClusterCount++;
+    }
+
+    // Граница между кластерами (clusterX, clusterY) и (clusterX + 1, clusterY): последний ряд первого и первый ряд второго
+    private void addRowBorderTransitions(int clusterX, int clusterY, TransitionSink sink) {
+        int x = (clusterX + 1) * clusterSize - 1;
+        int fromY = clusterY * clusterSize;
+        int toY = Math.min(fromY + clusterSize, geometry.height()) - 1;
+
+        int runStart = NO_CELL;
+        for (int y = fromY; y <= toY + 1; y++) {
+            boolean open = y <= toY && occupancy.isPassable(x, y) && occupancy.isPassable(x + 1, y);
+            if (open && runStart == NO_CELL) {
+                runStart = y;
+            } else if (!open && runStart != NO_CELL) {
+                for (int entranceY : entrancePositions(runStart, y - 1)) {
+                    sink.add(geometry.index(x, entranceY), geometry.index(x + 1, entranceY));
+                }
+                runStart = NO_CELL;
+            }
+        }
+
+        // Диагональный переход, у которого обе прямые клетки напротив заняты, не проходит ни через один участок
+        for (int y = fromY; y <= toY; y++) {
+            for (int dy = -1; dy <= 1; dy += 2) {
+                int otherY = y + dy;
+                if (otherY >= fromY && otherY <= toY
+                        && occupancy.isPassable(x, y) && occupancy.isPassable(x + 1, otherY)
+                        && !occupancy.isPassable(x + 1, y) && !occupancy.isPassable(x, otherY)) {
+                    sink.add(geometry.index(x, y), geometry.index(x + 1, otherY));
+                }
+            }
+        }
+    }
+
+    // Граница между кластерами (clusterX, clusterY) и (clusterX, clusterY + 1)
+    private void addColumnBorderTransitions(int clusterX, int clusterY, TransitionSink sink) {
+        int y = (clusterY + 1) * clusterSize - 1;
+        int fromX = clusterX * clusterSize;
+        int toX = Math.min(fromX + clusterSize, geometry.width()) - 1;
+
+        int runStart = NO_CELL;
+        for (int x = fromX; x <= toX + 1; x++) {
+            boolean open = x <= toX && occupancy.isPassable(x, y) && occupancy.isPassable(x, y + 1);
+            if (open && runStart == NO_CELL) {
+                runStart = x;
+            } else if (!open && runStart != NO_CELL) {
+                for (int entranceX : entrancePositions(runStart, x - 1)) {
+                    sink.add(geometry.index(entranceX, y), geometry.index(entranceX, y + 1));
+                }
+                runStart = NO_CELL;
+            }
+        }
+
+        for (int x = fromX; x <= toX; x++) {
+            for (int dx = -1; dx <= 1; dx += 2) {
+                int otherX = x + dx;
+                if (otherX >= fromX && otherX <= toX
+                        && occupancy.isPassable(x, y) && occupancy.isPassable(otherX, y + 1)
+                        && !occupancy.isPassable(x, y + 1) && !occupancy.isPassable(otherX, y)) {
+                    sink.add(geometry.index(x, y), geometry.index(otherX, y + 1));
+                }
+            }
+        }
+    }
+
+    // Диагональный переход между угловыми клетками кластера (clusterX, clusterY) и (clusterX + 1, clusterY + dy)
+    private void addCornerTransition(int clusterX, int clusterY, int dy, TransitionSink sink) {
+        int x = (clusterX + 1) * clusterSize - 1;
+        int y = dy > 0 ? (clusterY + 1) * clusterSize - 1 : clusterY * clusterSize;
+
+        if (occupancy.isPassable(x, y) && occupancy.isPassable(x + 1, y + dy)) {
+            sink.add(geometry.index(x, y), geometry.index(x + 1, y + dy));
+        }
+    }
+
+    private int[] entrancePositions(int from, int to) {
+        return to - from + 1 >= LONG_ENTRANCE ? new int[]{from, to} : new int[]{(from + to) / 2};
+    }
+
+    private void seedStartNodes(PathSearchScratch scratch, int startX, int startY, int targetX, int targetY) {
+        int fromClusterX = Math.max(startX / clusterSize - 1, 0);
+        int toClusterX = Math.min(startX / clusterSize + 1, clusterRows - 1);
+        int fromClusterY = Math.max(startY / clusterSize - 1, 0);
+        int toClusterY = Math.min(startY / clusterSize + 1, clusterColumns - 1);
+
+        for (int clusterX = fromClusterX; clusterX <= toClusterX; clusterX++) {
+            for (int clusterY = fromClusterY; clusterY <= toClusterY; clusterY++) {
+                for (int cell : clusterNodes[clusterX * clusterColumns + clusterY]) {
+                    int distance = startSearch.distanceTo(cell);
+                    if (distance != UNREACHABLE) {
+                        relax(scratch, cell, distance, START, targetX, targetY);
+                    }
+                }
+            }
+        }
+    }
+
+    private void relax(PathSearchScratch scratch, int cell, int distance, int previousCell,
+                       int targetX, int targetY) {
+        if (scratch.isClosed(cell)) {
+            return;
+        }
+
+        if (!scratch.isReached(cell) || distance < scratch.distances[cell]) {
+            scratch.reach(cell, distance, previousCell);
+            scratch.heap.insertOrDecrease(cell, distance + heuristic(cell, targetX, targetY));
+        }
+    }
+
+    // Расстояние Чебышёва до цели: все 8 шагов стоят 1
+    private int heuristic(int cell, int targetX, int targetY) {
+        int x = cell / geometry.height();
+        int y = cell % geometry.height();
+        return Math.max(Math.abs(x - targetX), Math.abs(y - targetY));
+    }
+
+    // Разворачивает цепочку входов в клетки: участки у старта и цели берутся из поисков окрестностей,
+    // переходы между кластерами - один шаг, отрезки внутри кластера ищутся заново только для кластеров пути
+    private PackedPath refinePath(PathSearchScratch scratch, int startCell, int targetCell,
+                                  int lastNode, int length) {
+        int[] cells = new int[length + 1];
+        cells[0] = startCell;
+
+        if (lastNode == START) {
+            startSearch.writePathTo(targetCell, cells, 1);
+            return new PackedPath(cells, geometry.height());
+        }
+
+        // Цепочка входов от первого к последнему; очередь потока после поиска свободна
+        int[] nodes = scratch.queue;
+        int nodeCount = 0;
+        for (int cell = lastNode; cell != START; cell = scratch.previous[cell]) {
+            nodes[nodeCount++] = cell;
+        }
+
+        int offset = startSearch.writePathTo(nodes[nodeCount - 1], cells, 1);
+        for (int i = nodeCount - 1; i > 0; i--) {
+            int from = nodes[i];
+            int to = nodes[i - 1];
+
+            if (clusterOf(from) != clusterOf(to)) {
+                cells[offset++] = to;
+            } else {
+                setClusterBounds(clusterSearch, from / geometry.height() / clusterSize,
+                        from % geometry.height() / clusterSize);
+                clusterSearch.search(from, NO_CELL, to);
+                offset = clusterSearch.writePathTo(to, cells, offset);
+            }
+        }
+        targetSearch.writePathFrom(lastNode, cells, offset);
+
+        return new PackedPath(cells, geometry.height());
+    }
+
+    private PackedPath noPath(Unit attacker, Unit target) {
+        System.out.println("Unit " + attacker.getName() +
+                " cannot find path to attack unit " + target.getName());
+        return PackedPath.empty();
+    }
+
+    private int clusterOf(int cell) {
+        return cell / geometry.height() / clusterSize * clusterColumns + cell % geometry.height() / clusterSize;
+    }
+
+    private void setClusterBounds(LocalSearch search, int clusterX, int clusterY) {
+        int fromX = clusterX * clusterSize;
+        int fromY = clusterY * clusterSize;
+        search.setBounds(fromX, fromY, Math.min(fromX + clusterSize, geometry.width()),
+                Math.min(fromY + clusterSize, geometry.height()));
+    }
+
+    // Окрестность клетки: её кластер и соседние с ним
+    private void setRegionBounds(LocalSearch search, int x, int y) {
+        int clusterX = x / clusterSize;
+        int clusterY = y / clusterSize;
+        search.setBounds(Math.max(clusterX - 1, 0) * clusterSize,
+                Math.max(clusterY - 1, 0) * clusterSize,
+                Math.min((clusterX + 2) * clusterSize, geometry.width()),
+                Math.min((clusterY + 2) * clusterSize, geometry.height()));
+    }
+
+    private interface TransitionSink {
+        void add(int firstCell, int secondCell);
+    }
+
+    // Поиск в ширину в прямоугольнике поля по массивам размера прямоугольника.
+    // Клетки вне прямоугольника недостижимы, препятствия берутся из карты занятости
+    private final class LocalSearch {
+        private final int[] distances;
+        private final int[] previous;
+        private final int[] queue;
+        private int fromX;
+        private int fromY;
+        private int toX;
+        private int toY;
+        private int visitedCount;
+
+        private LocalSearch(int capacity) {
+            this.distances = new int[capacity];
+            this.previous = new int[capacity];
+            this.queue = new int[capacity];
+        }
+
+        private void setBounds(int fromX, int fromY, int toX, int toY) {
+            this.fromX = fromX;
+            this.fromY = fromY;
+            this.toX = toX;
+            this.toY = toY;
+        }
+
+        private int getVisitedCount() {
+            return visitedCount;
+        }
+
+        // Клетка source - начало поиска даже если занята, passableCell проходима, на stopCell поиск завершается
+        private void search(int sourceCell, int passableCell, int stopCell) {
+            int height = toY - fromY;
+            Arrays.fill(distances, 0, (toX - fromX) * height, UNREACHABLE);
+
+            int head = 0;
+            int tail = 0;
+            int sourceX = sourceCell / geometry.height();
+            int sourceY = sourceCell % geometry.height();
+            int sourceLocal = (sourceX - fromX) * height + (sourceY - fromY);
+            distances[sourceLocal] = 0;
+            previous[sourceLocal] = NO_CELL;
+            queue[tail++] = sourceCell;
+
+            while (head < tail) {
+                int currentCell = queue[head++];
+                if (currentCell == stopCell) {
+                    break;
+                }
+
+                int currentX = currentCell / geometry.height();
+                int currentY = currentCell % geometry.height();
+                int currentDistance = distances[(currentX - fromX) * height + (currentY - fromY)];
+
+                for (int[] direction : DIRECTIONS) {
+                    int neighborX = currentX + direction[0];
+                    int neighborY = currentY + direction[1];
+                    if (neighborX < fromX || neighborX >= toX || neighborY < fromY || neighborY >= toY) {
+                        continue;
+                    }
+
+                    int neighborCell = geometry.index(neighborX, neighborY);
+                    if (occupancy.isBlocked(neighborX, neighborY) && neighborCell != passableCell) {
+                        continue;
+                    }
+
+                    int neighborLocal = (neighborX - fromX) * height + (neighborY - fromY);
+                    if (distances[neighborLocal] == UNREACHABLE) {
+                        distances[neighborLocal] = currentDistance + 1;
+                        previous[neighborLocal] = currentCell;
+                        queue[tail++] = neighborCell;
+                    }
+                }
+            }
+
+            visitedCount = head;
+        }
+
+        private int distanceTo(int cell) {
+            int x = cell / geometry.height();
+            int y = cell % geometry.height();
+            if (x < fromX || x >= toX || y < fromY || y >= toY) {
+                return UNREACHABLE;
+            }
+            return distances[(x - fromX) * (toY - fromY) + (y - fromY)];
+        }
+
+        private int previousOf(int cell) {
+            int x = cell / geometry.height();
+            int y = cell % geometry.height();
+            return previous[(x - fromX) * (toY - fromY) + (y - fromY)];
+        }
+
+        // Клетки пути от источника (не включая его) до cell в порядке движения; возвращает следующую позицию
+        private int writePathTo(int cell, int[] cells, int offset) {
+            int end = offset + distanceTo(cell);
+            int index = end - 1;
+            for (int current = cell; index >= offset; current = previousOf(current)) {
+                cells[index--] = current;
+            }
+            return end;
+        }
+
+        // Клетки пути от cell (не включая её) до источника: поиск шёл от цели, поэтому предшественник - шаг к ней
+        private int writePathFrom(int cell, int[] cells, int offset) {
+            for (int current = previousOf(cell); current != NO_CELL; current = previousOf(current)) {
+                cells[offset++] = current;
+            }
+            return offset;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package programs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Накапливает записи в памяти, например для разбора боя после его окончания
+public final class InMemoryBattleLogSink implements BattleLogSink {
+    private final List<BattleLogEntry> entries = new ArrayList<>();
+
+    @Override
+    public synchronized void write(List<BattleLogEntry> batch) {
+        entries.addAll(batch);
+    }
+
+    public synchronized List<BattleLogEntry> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,113 @@
+package programs;
+
+import java.util.Arrays;
+
+// Двоичная куча по индексам клеток с операцией уменьшения ключа.
+// Для каждой клетки хранится её позиция в куче, поэтому проверка наличия и decrease-key работают за O(1) и O(log n)
+final class IndexedMinHeap {
+    private static final int ABSENT = -1;
+
+    private final int[] heap;
+    private final int[] keys;
+    private final int[] positions;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new int[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int cell) {
+        return positions[cell] != ABSENT;
+    }
+
+    // Очистка за O(size): сбрасываются только позиции клеток, оставшихся в куче
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    // Добавляет клетку или уменьшает её ключ, если новый ключ меньше текущего
+    void insertOrDecrease(int cell, int key) {
+        int position = positions[cell];
+
+        if (position == ABSENT) {
+            heap[size] = cell;
+            keys[cell] = key;
+            positions[cell] = size;
+            siftUp(size++);
+        } else if (key < keys[cell]) {
+            keys[cell] = key;
+            siftUp(position);
+        }
+    }
+
+    // Извлекает клетку с минимальным ключом
+    int poll() {
+        int top = heap[0];
+        positions[top] = ABSENT;
+        size--;
+
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+
+        return top;
+    }
+
+    private void siftUp(int position) {
+        int cell = heap[position];
+        int key = keys[cell];
+
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+
+        heap[position] = cell;
+        positions[cell] = position;
+    }
+
+    private void siftDown(int position) {
+        int cell = heap[position];
+        int key = keys[cell];
+        int half = size >>> 1;
+
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+
+            if (rightPosition < size && keys[heap[rightPosition]] < keys[child]) {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            heap[position] = child;
+            positions[child] = position;
+            position = childPosition;
+        }
+
+        heap[position] = cell;
+        positions[cell] = position;
+    }
+}
@@ -0,0 +1,256 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+import java.util.List;
+
+// Jump Point Search: A* по точкам прыжка вместо отдельных клеток.
+// На пустых участках поля симметричные ходы по 8 направлениям отсекаются, в очередь попадают
+// только клетки с вынужденными соседями, а путь затем разворачивается обратно в цепочку клеток
+public class JumpPointPathFinder implements UnitTargetPathFinder {
+    private static final int NO_CELL = -1;
+
+    // 8 направлений движения (включая диагонали)
+    private static final int[][] DIRECTIONS = {
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1},   // Вверх, вниз, влево, вправо
+            {-1, -1}, {1, 1}, {-1, 1}, {1, -1}  // Диагонали
+    };
+
+    private final BattlefieldGeometry geometry;
+
+    public JumpPointPathFinder() {
+        this(BattlefieldGeometry.DEFAULT);
+    }
+
+    public JumpPointPathFinder(BattlefieldGeometry geometry) {
+        this.geometry = geometry;
+    }
+
+    @Override
+    public List<Edge> getTargetPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        return findPath(attacker, target, allUnits).asEdges();
+    }
+
+    // Путь упакованным массивом клеток, см. PackedPath
+    public PackedPath findPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        // Буферы потока общие с UnitTargetPathFinderImpl
+        PathSearchScratch scratch = PathSearchScratch.acquire(geometry.width(), geometry.height());
+        int[] gScore = scratch.distances;
+        int[] parent = scratch.previous;
+
+        OccupancyGrid obstacles = scratch.obstacles;
+        obstacles.fillObstacles(allUnits, attacker, target);
+
+        int startX = attacker.getxCoordinate();
+        int startY = attacker.getyCoordinate();
+        int targetX = target.getxCoordinate();
+        int targetY = target.getyCoordinate();
+        int startCell = obstacles.index(startX, startY);
+        int targetCell = obstacles.index(targetX, targetY);
+
+        IndexedMinHeap openSet = scratch.heap;
+        scratch.reach(startCell, 0, NO_CELL);
+        openSet.insertOrDecrease(startCell, distance(startX, startY, targetX, targetY));
+
+        // Направления-кандидаты текущей клетки парами (dx, dy): не больше 8 штук
+        int[] directions = new int[DIRECTIONS.length * 2];
+        int expanded = 0;
+
+        while (!openSet.isEmpty()) {
+            int currentCell = openSet.poll();
+            expanded++;
+
+            if (currentCell == targetCell) {
+                break;
+            }
+
+            scratch.close(currentCell);
+            int currentX = currentCell / geometry.height();
+            int currentY = currentCell % geometry.height();
+
+            int directionCount = prunedDirections(currentX, currentY, parent[currentCell],
+                    obstacles, directions);
+
+            for (int i = 0; i < directionCount; i++) {
+                int jumpPoint = jump(currentX, currentY, directions[2 * i], directions[2 * i + 1],
+                        targetX, targetY, obstacles);
+
+                if (jumpPoint == NO_CELL || scratch.isClosed(jumpPoint)) {
+                    continue;
+                }
+
+                int jumpX = jumpPoint / geometry.height();
+                int jumpY = jumpPoint % geometry.height();
+
+                // Между соседними точками прыжка путь прямой или строго диагональный
+                int tentativeGScore = gScore[currentCell] + distance(currentX, currentY, jumpX, jumpY);
+
+                if (!scratch.isReached(jumpPoint) || tentativeGScore < gScore[jumpPoint]) {
+                    scratch.reach(jumpPoint, tentativeGScore, currentCell);
+                    openSet.insertOrDecrease(jumpPoint, tentativeGScore +
+                            distance(jumpX, jumpY, targetX, targetY));
+                }
+            }
+        }
+
+        scratch.expandedNodes = expanded;
+        return reconstructPath(startCell, targetCell, scratch, attacker, target);
+    }
+
+    // Расстояние Чебышёва: все 8 шагов стоят 1
+    private int distance(int x1, int y1, int x2, int y2) {
+        return Math.max(Math.abs(x1 - x2), Math.abs(y1 - y2));
+    }
+
+    // Оставляет естественных и вынужденных соседей с учётом направления, которым пришли в клетку
+    private int prunedDirections(int x, int y, int parentCell, OccupancyGrid obstacles, int[] directions) {
+        int count = 0;
+
+        // Из стартовой клетки рассматриваются все 8 направлений
+        if (parentCell == NO_CELL) {
+            for (int[] direction : DIRECTIONS) {
+                directions[2 * count] = direction[0];
+                directions[2 * count + 1] = direction[1];
+                count++;
+            }
+            return count;
+        }
+
+        int dx = Integer.signum(x - parentCell / geometry.height());
+        int dy = Integer.signum(y - parentCell % geometry.height());
+
+        if (dx != 0 && dy != 0) {
+            count = addDirection(directions, count, dx, 0);
+            count = addDirection(directions, count, 0, dy);
+            count = addDirection(directions, count, dx, dy);
+
+            if (!obstacles.isPassable(x - dx, y) && obstacles.isPassable(x - dx, y + dy)) {
+                count = addDirection(directions, count, -dx, dy);
+            }
+            if (!obstacles.isPassable(x, y - dy) && obstacles.isPassable(x + dx, y - dy)) {
+                count = addDirection(directions, count, dx, -dy);
+            }
+        } else if (dx != 0) {
+            count = addDirection(directions, count, dx, 0);
+
+            if (!obstacles.isPassable(x, y + 1) && obstacles.isPassable(x + dx, y + 1)) {
+                count = addDirection(directions, count, dx, 1);
+            }
+            if (!obstacles.isPassable(x, y - 1) && obstacles.isPassable(x + dx, y - 1)) {
+                count = addDirection(directions, count, dx, -1);
+            }
+        } else {
+            count = addDirection(directions, count, 0, dy);
+
+            if (!obstacles.isPassable(x + 1, y) && obstacles.isPassable(x + 1, y + dy)) {
+                count = addDirection(directions, count, 1, dy);
+            }
+            if (!obstacles.isPassable(x - 1, y) && obstacles.isPassable(x - 1, y + dy)) {
+                count = addDirection(directions, count, -1, dy);
+            }
+        }
+
+        return count;
+    }
+
+    private int addDirection(int[] directions, int count, int dx, int dy) {
+        directions[2 * count] = dx;
+        directions[2 * count + 1] = dy;
+        return count + 1;
+    }
+
+    // Идёт из (x, y) в направлении (dx, dy) до первой точки прыжка: цели, клетки с вынужденным соседом
+    // или (для диагонали) клетки, из которой прямой прыжок находит точку прыжка
+    private int jump(int x, int y, int dx, int dy, int targetX, int targetY, OccupancyGrid obstacles) {
+        while (true) {
+            x += dx;
+            y += dy;
+
+            if (!obstacles.isPassable(x, y)) {
+                return NO_CELL;
+            }
+            if (x == targetX && y == targetY) {
+                return obstacles.index(x, y);
+            }
+
+            if (dx != 0 && dy != 0) {
+                if ((!obstacles.isPassable(x - dx, y) && obstacles.isPassable(x - dx, y + dy))
+                        || (!obstacles.isPassable(x, y - dy) && obstacles.isPassable(x + dx, y - dy))) {
+                    return obstacles.index(x, y);
+                }
+                if (jumpStraight(x, y, dx, 0, targetX, targetY, obstacles)
+                        || jumpStraight(x, y, 0, dy, targetX, targetY, obstacles)) {
+                    return obstacles.index(x, y);
+                }
+            } else if (hasForcedNeighbor(x, y, dx, dy, obstacles)) {
+                return obstacles.index(x, y);
+            }
+        }
+    }
+
+    // Прямой прыжок для проверки из диагонали: нужен только факт, что точка прыжка существует
+    private boolean jumpStraight(int x, int y, int dx, int dy, int targetX, int targetY,
+                                 OccupancyGrid obstacles) {
+        while (true) {
+            x += dx;
+            y += dy;
+
+            if (!obstacles.isPassable(x, y)) {
+                return false;
+            }
+            if ((x == targetX && y == targetY) || hasForcedNeighbor(x, y, dx, dy, obstacles)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean hasForcedNeighbor(int x, int y, int dx, int dy, OccupancyGrid obstacles) {
+        if (dx != 0) {
+            return (!obstacles.isPassable(x, y + 1) && obstacles.isPassable(x + dx, y + 1))
+                    || (!obstacles.isPassable(x, y - 1) && obstacles.isPassable(x + dx, y - 1));
+        }
+        return (!obstacles.isPassable(x + 1, y) && obstacles.isPassable(x + 1, y + dy))
+                || (!obstacles.isPassable(x - 1, y) && obstacles.isPassable(x - 1, y + dy));
+    }
+
+    // Разворачивает цепочку точек прыжка в полный путь по клеткам от старта к цели
+    private PackedPath reconstructPath(int startCell, int targetCell, PathSearchScratch scratch,
+                                       Unit attacker, Unit target) {
+        if (!scratch.isReached(targetCell) || scratch.previous[targetCell] == NO_CELL) {
+            System.out.println("Unit " + attacker.getName() +
+                    " cannot find path to attack unit " + target.getName());
+            return PackedPath.empty();
+        }
+
+        // Точки прыжка от цели к старту; очередь потока после поиска свободна
+        int[] jumpPoints = scratch.queue;
+        int jumpPointCount = 0;
+        for (int cell = targetCell; cell != NO_CELL; cell = scratch.previous[cell]) {
+            jumpPoints[jumpPointCount++] = cell;
+        }
+
+        // g цели равно числу шагов пути, так как каждый шаг отрезка стоит 1
+        int[] cells = new int[scratch.distances[targetCell] + 1];
+        int length = 0;
+        cells[length++] = startCell;
+
+        for (int i = jumpPointCount - 1; i > 0; i--) {
+            int fromX = jumpPoints[i] / geometry.height();
+            int fromY = jumpPoints[i] % geometry.height();
+            int toX = jumpPoints[i - 1] / geometry.height();
+            int toY = jumpPoints[i - 1] % geometry.height();
+            int dx = Integer.signum(toX - fromX);
+            int dy = Integer.signum(toY - fromY);
+
+            while (fromX != toX || fromY != toY) {
+                fromX += dx;
+                fromY += dy;
+                cells[length++] = geometry.index(fromX, fromY);
+            }
+        }
+
+        return new PackedPath(cells, geometry.height());
+    }
+}
@@ -0,0 +1,103 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Серия независимых боёв одной пары армий на всех ядрах.
+// Каждый бой получает глубокие копии армий с новыми программами юнитов и свой SimulateBattleImpl
+// в режиме HEADLESS с отключённым журналом, поэтому бои не делят изменяемого состояния.
+// Исходные армии не изменяются
+public class MonteCarloBattleRunner {
+    private final ProgramFactory programFactory;
+    private final int parallelism;
+
+    public MonteCarloBattleRunner(ProgramFactory programFactory) {
+        this(programFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MonteCarloBattleRunner(ProgramFactory programFactory, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+
+        this.programFactory = programFactory;
+        this.parallelism = parallelism;
+    }
+
+    public MonteCarloResult run(Army playerArmy, Army computerArmy, int trials) throws InterruptedException {
+        if (trials <= 0) {
+            throw new IllegalArgumentException("Trial count must be positive: " + trials);
+        }
+
+        // Снимок армий на момент вызова: копии для боёв делаются с него, а не с живых объектов
+        BattleState initialState = BattleState.fromArmies(playerArmy, computerArmy);
+
+        // Параллельный поток, запущенный из задачи пула, выполняется в этом пуле, а не в общем
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> IntStream.range(0, trials)
+                            .parallel()
+                            .mapToObj(trial -> runTrial(initialState))
+                            .collect(MonteCarloResult.collector()))
+                    .get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Battle trial failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private MonteCarloResult.TrialResult runTrial(BattleState initialState) {
+        Army playerArmy = initialState.toPlayerArmy();
+        Army computerArmy = initialState.toComputerArmy();
+
+        for (Unit unit : playerArmy.getUnits()) {
+            unit.setProgram(programFactory.create(unit, playerArmy, computerArmy, true));
+        }
+        for (Unit unit : computerArmy.getUnits()) {
+            unit.setProgram(programFactory.create(unit, computerArmy, playerArmy, false));
+        }
+
+        SimulateBattleImpl simulateBattle = new SimulateBattleImpl();
+        simulateBattle.setPrintBattleLog(BattleLog.discarding());
+        simulateBattle.setSimulationMode(SimulationMode.HEADLESS);
+
+        try {
+            simulateBattle.simulate(playerArmy, computerArmy);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Battle trial interrupted", e);
+        }
+
+        return new MonteCarloResult.TrialResult(
+                aliveCount(playerArmy),
+                aliveCount(computerArmy),
+                simulateBattle.getCompletedRounds(),
+                survivingHealth(playerArmy),
+                survivingHealth(computerArmy)
+        );
+    }
+
+    private static int aliveCount(Army army) {
+        return (int) army.getUnits().stream()
+                .filter(Unit::isAlive)
+                .count();
+    }
+
+    private static int survivingHealth(Army army) {
+        return army.getUnits().stream()
+                .filter(Unit::isAlive)
+                .mapToInt(Unit::getHealth)
+                .sum();
+    }
+}
@@ -0,0 +1,183 @@
+package programs;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+
+// Сводка серии боёв: исходы с точки зрения игрока, длительность боёв в раундах
+// и суммарное здоровье выживших каждой армии
+public final class MonteCarloResult {
+    private final long playerWins;
+    private final long draws;
+    private final long computerWins;
+    private final Distribution rounds;
+    private final Distribution playerSurvivingHealth;
+    private final Distribution computerSurvivingHealth;
+
+    private MonteCarloResult(Accumulator accumulator) {
+        this.playerWins = accumulator.playerWins;
+        this.draws = accumulator.draws;
+        this.computerWins = accumulator.computerWins;
+        this.rounds = new Distribution(accumulator.rounds.toSortedArray());
+        this.playerSurvivingHealth = new Distribution(accumulator.playerSurvivingHealth.toSortedArray());
+        this.computerSurvivingHealth = new Distribution(accumulator.computerSurvivingHealth.toSortedArray());
+    }
+
+    public long getTrialCount() {
+        return playerWins + draws + computerWins;
+    }
+
+    public long getPlayerWins() {
+        return playerWins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getComputerWins() {
+        return computerWins;
+    }
+
+    public Distribution getRounds() {
+        return rounds;
+    }
+
+    public Distribution getPlayerSurvivingHealth() {
+        return playerSurvivingHealth;
+    }
+
+    public Distribution getComputerSurvivingHealth() {
+        return computerSurvivingHealth;
+    }
+
+    @Override
+    public String toString() {
+        return "trials=" + getTrialCount()
+                + ", wins=" + playerWins + ", draws=" + draws + ", losses=" + computerWins
+                + ", rounds=" + rounds
+                + ", playerHealth=" + playerSurvivingHealth
+                + ", computerHealth=" + computerSurvivingHealth;
+    }
+
+    // Собирает результаты боёв; части, посчитанные в разных потоках, объединяются без блокировок
+    static Collector<TrialResult, ?, MonteCarloResult> collector() {
+        return Collector.of(Accumulator::new, Accumulator::add, Accumulator::combine, MonteCarloResult::new);
+    }
+
+    record TrialResult(int playerUnitCount, int computerUnitCount, int rounds,
+                       int playerSurvivingHealth, int computerSurvivingHealth) {}
+
+    // Распределение целых значений по всем боям серии
+    public static final class Distribution {
+        private final int[] sortedValues;
+
+        private Distribution(int[] sortedValues) {
+            this.sortedValues = sortedValues;
+        }
+
+        public int size() {
+            return sortedValues.length;
+        }
+
+        public int getMin() {
+            return sortedValues.length == 0 ? 0 : sortedValues[0];
+        }
+
+        public int getMax() {
+            return sortedValues.length == 0 ? 0 : sortedValues[sortedValues.length - 1];
+        }
+
+        public double getMean() {
+            return Arrays.stream(sortedValues).average().orElse(0);
+        }
+
+        // Наименьшее значение, которого не превышает доля fraction всех значений (0.5 - медиана)
+        public int getPercentile(double fraction) {
+            if (fraction < 0 || fraction > 1) {
+                throw new IllegalArgumentException("Percentile must be in [0, 1]: " + fraction);
+            }
+            if (sortedValues.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(fraction * sortedValues.length) - 1;
+            return sortedValues[Math.max(index, 0)];
+        }
+
+        // Сколько раз встретилось каждое значение, по возрастанию значений
+        public Map<Integer, Long> getHistogram() {
+            Map<Integer, Long> histogram = new TreeMap<>();
+            for (int value : sortedValues) {
+                histogram.merge(value, 1L, Long::sum);
+            }
+            return histogram;
+        }
+
+        @Override
+        public String toString() {
+            return "[min=" + getMin() + ", median=" + getPercentile(0.5)
+                    + ", mean=" + String.format("%.1f", getMean()) + ", max=" + getMax() + "]";
+        }
+    }
+
+    private static final class Accumulator {
+        private long playerWins;
+        private long draws;
+        private long computerWins;
+        private final IntBuffer rounds = new IntBuffer();
+        private final IntBuffer playerSurvivingHealth = new IntBuffer();
+        private final IntBuffer computerSurvivingHealth = new IntBuffer();
+
+        // Исход определяется так же, как в итоге боя SimulateBattleImpl
+        private void add(TrialResult trial) {
+            if (trial.playerUnitCount() == 0 && trial.computerUnitCount() == 0) {
+                draws++;
+            } else if (trial.playerUnitCount() > 0) {
+                playerWins++;
+            } else {
+                computerWins++;
+            }
+
+            rounds.add(trial.rounds());
+            playerSurvivingHealth.add(trial.playerSurvivingHealth());
+            computerSurvivingHealth.add(trial.computerSurvivingHealth());
+        }
+
+        private Accumulator combine(Accumulator other) {
+            playerWins += other.playerWins;
+            draws += other.draws;
+            computerWins += other.computerWins;
+            rounds.addAll(other.rounds);
+            playerSurvivingHealth.addAll(other.playerSurvivingHealth);
+            computerSurvivingHealth.addAll(other.computerSurvivingHealth);
+            return this;
+        }
+    }
+
+    private static final class IntBuffer {
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void addAll(IntBuffer other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        private int[] toSortedArray() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package programs;
+
+import java.util.List;
+
+// Отбрасывает журнал: для пакетных прогонов, где важен только исход боя
+public final class NullBattleLogSink implements BattleLogSink {
+
+    @Override
+    public void write(List<BattleLogEntry> batch) {
+    }
+}
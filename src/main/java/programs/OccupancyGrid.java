@@ -0,0 +1,107 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Битовая карта занятых клеток поля: одна клетка - один бит, индекс клетки = x * height + y
+public final class OccupancyGrid {
+    private final int width;
+    private final int height;
+    private final long[] bits;
+
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int index(int x, int y) {
+        return x * height + y;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean isBlocked(int x, int y) {
+        int index = index(x, y);
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // Клетка внутри поля и не занята препятствием
+    public boolean isPassable(int x, int y) {
+        return contains(x, y) && !isBlocked(x, y);
+    }
+
+    public void block(int x, int y) {
+        int index = index(x, y);
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    public void unblock(int x, int y) {
+        int index = index(x, y);
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    public void clear() {
+        Arrays.fill(bits, 0L);
+    }
+
+    // Копирует карту того же размера целиком, по слову на 64 клетки
+    public void copyFrom(OccupancyGrid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Grid size mismatch: " + other.width + "x" + other.height
+                    + " instead of " + width + "x" + height);
+        }
+        System.arraycopy(other.bits, 0, bits, 0, bits.length);
+    }
+
+    // Приводит карту к source и сообщает индексы клеток, которые при этом изменились
+    public void updateFrom(OccupancyGrid source, IntConsumer changedCells) {
+        if (source.width != width || source.height != height) {
+            throw new IllegalArgumentException("Grid size mismatch: " + source.width + "x" + source.height
+                    + " instead of " + width + "x" + height);
+        }
+
+        for (int word = 0; word < bits.length; word++) {
+            long changed = bits[word] ^ source.bits[word];
+            if (changed == 0) {
+                continue;
+            }
+
+            bits[word] = source.bits[word];
+            while (changed != 0) {
+                changedCells.accept(word * Long.SIZE + Long.numberOfTrailingZeros(changed));
+                changed &= changed - 1;
+            }
+        }
+    }
+
+    // Перестраивает карту: препятствия - живые юниты, кроме атакующего и цели
+    public void fillObstacles(List<Unit> allUnits, Unit attacker, Unit target) {
+        clear();
+
+        for (Unit unit : allUnits) {
+            if (unit == attacker || unit == target || !unit.isAlive()) {
+                continue;
+            }
+
+            int x = unit.getxCoordinate();
+            int y = unit.getyCoordinate();
+            if (contains(x, y)) {
+                block(x, y);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Версия занятости поля: увеличивается при каждом перемещении или гибели юнита.
+// Кэши путей сравнивают версию и не пересчитывают ничего, пока поле не изменилось
+public final class OccupancyTracker implements BattleEventListener {
+    private final AtomicLong version = new AtomicLong();
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Для изменений поля, сделанных в обход движка
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onUnitMoved(Unit unit, int fromX, int fromY) {
+        invalidate();
+    }
+
+    @Override
+    public void onUnitDied(Unit unit) {
+        invalidate();
+    }
+}
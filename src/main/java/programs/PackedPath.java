@@ -0,0 +1,64 @@
+package programs;
+
+import com.battle.heroes.army.programs.Edge;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Путь как один массив упакованных индексов клеток (x * height + y) в порядке от старта к цели.
+// Координаты читаются напрямую; для старых вызывающих есть ленивое представление List<Edge>,
+// которое создаёт Edge только при обращении к элементу
+public final class PackedPath {
+    private static final PackedPath EMPTY = new PackedPath(new int[0], 1);
+
+    private final int[] cells;
+    private final int height;
+
+    PackedPath(int[] cells, int height) {
+        this.cells = cells;
+        this.height = height;
+    }
+
+    public static PackedPath empty() {
+        return EMPTY;
+    }
+
+    // Число клеток пути, включая стартовую и целевую
+    public int length() {
+        return cells.length;
+    }
+
+    public boolean isEmpty() {
+        return cells.length == 0;
+    }
+
+    // Число шагов от старта до цели
+    public int steps() {
+        return Math.max(cells.length - 1, 0);
+    }
+
+    public int getX(int index) {
+        return cells[index] / height;
+    }
+
+    public int getY(int index) {
+        return cells[index] % height;
+    }
+
+    public List<Edge> asEdges() {
+        return new EdgeView();
+    }
+
+    private final class EdgeView extends AbstractList<Edge> implements RandomAccess {
+        @Override
+        public Edge get(int index) {
+            return new Edge(getX(index), getY(index));
+        }
+
+        @Override
+        public int size() {
+            return cells.length;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package programs;
+
+// Алгоритм, которым UnitTargetPathFinderImpl ищет путь до цели
+public enum PathSearchAlgorithm {
+    // Dijkstra с приоритетной очередью
+    DIJKSTRA,
+    // A* на индексированной куче с эвристикой Чебышёва
+    A_STAR,
+    // Поиск в ширину по очереди индексов клеток в int[]: все шаги стоят 1
+    BREADTH_FIRST
+}
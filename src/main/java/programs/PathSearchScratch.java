@@ -0,0 +1,97 @@
+package programs;
+
+import java.util.Arrays;
+
+// Рабочие буферы поиска пути, закреплённые за потоком и переиспользуемые между вызовами.
+// Отметки "достигнута", "закрыта" и "цель" хранят номер поколения: каждый поиск начинается
+// с нового номера, поэтому массивы не очищаются и в установившемся режиме ничего не выделяется
+final class PathSearchScratch {
+    private static final ThreadLocal<PathSearchScratch> CURRENT = new ThreadLocal<>();
+
+    final OccupancyGrid obstacles;
+    final int[] distances;
+    final int[] previous;
+    final int[] queue;
+    final IndexedMinHeap heap;
+    // Клетки или точки прыжка, раскрытые текущим поиском; поиск записывает их перед возвратом
+    int expandedNodes;
+
+    private final int[] reachedMarks;
+    private final int[] closedMarks;
+    private final int[] targetMarks;
+    private int generation;
+
+    private PathSearchScratch(int width, int height) {
+        int cellCount = width * height;
+        this.obstacles = new OccupancyGrid(width, height);
+        this.distances = new int[cellCount];
+        this.previous = new int[cellCount];
+        this.queue = new int[cellCount];
+        this.heap = new IndexedMinHeap(cellCount);
+        this.reachedMarks = new int[cellCount];
+        this.closedMarks = new int[cellCount];
+        this.targetMarks = new int[cellCount];
+    }
+
+    // Буферы текущего потока под поле заданного размера, готовые к новому поиску
+    static PathSearchScratch acquire(int width, int height) {
+        PathSearchScratch scratch = CURRENT.get();
+
+        if (scratch == null || scratch.obstacles.getWidth() != width
+                || scratch.obstacles.getHeight() != height) {
+            scratch = new PathSearchScratch(width, height);
+            CURRENT.set(scratch);
+        }
+
+        scratch.nextGeneration();
+        return scratch;
+    }
+
+    // Число вершин, раскрытых последним поиском пути в текущем потоке
+    static int lastExpandedNodeCount() {
+        PathSearchScratch scratch = CURRENT.get();
+        return scratch == null ? 0 : scratch.expandedNodes;
+    }
+
+    private void nextGeneration() {
+        generation++;
+
+        // После переполнения счётчика старые отметки могли бы совпасть с новым поколением
+        if (generation == 0) {
+            Arrays.fill(reachedMarks, 0);
+            Arrays.fill(closedMarks, 0);
+            Arrays.fill(targetMarks, 0);
+            generation = 1;
+        }
+
+        heap.clear();
+        expandedNodes = 0;
+    }
+
+    boolean isReached(int cell) {
+        return reachedMarks[cell] == generation;
+    }
+
+    // Клетка достигнута: distances и previous для неё заполнены в текущем поиске
+    void reach(int cell, int distance, int previousCell) {
+        reachedMarks[cell] = generation;
+        distances[cell] = distance;
+        previous[cell] = previousCell;
+    }
+
+    boolean isClosed(int cell) {
+        return closedMarks[cell] == generation;
+    }
+
+    void close(int cell) {
+        closedMarks[cell] = generation;
+    }
+
+    boolean isTarget(int cell) {
+        return targetMarks[cell] == generation;
+    }
+
+    void markTarget(int cell) {
+        targetMarks[cell] = generation;
+    }
+}
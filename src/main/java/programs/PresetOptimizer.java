@@ -0,0 +1,138 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Точный состав армии для любого бюджета до maxBudget (ограниченный рюкзак).
+// Каждого типа можно взять не больше MAX_UNITS_PER_TYPE юнитов; цель - максимум суммарной атаки,
+// а при равной атаке - максимум суммарного здоровья. Обе величины упакованы в одно long-значение:
+// атака в старших 32 битах, здоровье в младших.
+// Таблица строится один раз за O(типов * maxBudget * MAX_UNITS_PER_TYPE); для каждого типа и бюджета
+// запоминается выбранное число юнитов, так что состав для любого бюджета восстанавливается за O(типов)
+public final class PresetOptimizer {
+    private static final int HEALTH_BITS = 32;
+
+    private final List<Unit> templates = new ArrayList<>();
+    private final int maxBudget;
+    private final long[] bestValues;
+    private final byte[][] chosenCounts;
+
+    public PresetOptimizer(List<Unit> availableUnits, int maxBudget) {
+        if (maxBudget < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + maxBudget);
+        }
+
+        // Отрицательная стоимость увеличила бы остаток бюджета сверх maxBudget
+        for (Unit unit : availableUnits) {
+            if (unit.getCost() < 0) {
+                throw new IllegalArgumentException("Unit cost must not be negative: "
+                        + unit.getUnitType() + " costs " + unit.getCost());
+            }
+        }
+
+        // Ограничение на число юнитов действует на тип, поэтому каждый тип учитывается один раз
+        Set<String> unitTypes = new HashSet<>();
+        for (Unit unit : availableUnits) {
+            if (unitTypes.add(unit.getUnitType())) {
+                templates.add(unit);
+            }
+        }
+
+        this.maxBudget = maxBudget;
+        this.chosenCounts = new byte[templates.size()][maxBudget + 1];
+
+        long[] previous = new long[maxBudget + 1];
+        long[] current = new long[maxBudget + 1];
+
+        for (int type = 0; type < templates.size(); type++) {
+            Unit template = templates.get(type);
+            int cost = template.getCost();
+            long value = valueOf(template);
+            byte[] chosen = chosenCounts[type];
+
+            for (int budget = 0; budget <= maxBudget; budget++) {
+                long best = previous[budget];
+                int bestCount = 0;
+
+                for (int count = 1; count <= GeneratePresetImpl.MAX_UNITS_PER_TYPE; count++) {
+                    int remaining = budget - count * cost;
+                    if (remaining < 0) {
+                        break;
+                    }
+
+                    long candidate = previous[remaining] + count * value;
+                    if (candidate > best) {
+                        best = candidate;
+                        bestCount = count;
+                    }
+                }
+
+                current[budget] = best;
+                chosen[budget] = (byte) bestCount;
+            }
+
+            long[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        this.bestValues = previous;
+    }
+
+    public int getMaxBudget() {
+        return maxBudget;
+    }
+
+    public Composition getComposition(int budget) {
+        if (budget < 0 || budget > maxBudget) {
+            throw new IllegalArgumentException("Budget must be in [0, " + maxBudget + "]: " + budget);
+        }
+
+        int[] counts = new int[templates.size()];
+        int remaining = budget;
+        for (int type = templates.size() - 1; type >= 0; type--) {
+            counts[type] = chosenCounts[type][remaining];
+            remaining -= counts[type] * templates.get(type).getCost();
+        }
+
+        Map<Unit, Integer> unitCounts = new LinkedHashMap<>();
+        int totalCost = 0;
+        for (int type = 0; type < templates.size(); type++) {
+            if (counts[type] > 0) {
+                unitCounts.put(templates.get(type), counts[type]);
+                totalCost += counts[type] * templates.get(type).getCost();
+            }
+        }
+
+        long value = bestValues[budget];
+        return new Composition(budget, Collections.unmodifiableMap(unitCounts), totalCost,
+                (int) (value >>> HEALTH_BITS), (int) (value & 0xFFFFFFFFL));
+    }
+
+    // Оптимальные составы для всех бюджетов от 0 до maxBudget по одной таблице
+    public List<Composition> getCompositions() {
+        List<Composition> compositions = new ArrayList<>(maxBudget + 1);
+        for (int budget = 0; budget <= maxBudget; budget++) {
+            compositions.add(getComposition(budget));
+        }
+        return compositions;
+    }
+
+    private static long valueOf(Unit template) {
+        return ((long) template.getBaseAttack() << HEALTH_BITS) + template.getHealth();
+    }
+
+    // Число юнитов каждого шаблона в порядке шаблонов и итоговые суммы состава
+    public record Composition(int budget,
+                              Map<Unit, Integer> unitCounts,
+                              int totalCost,
+                              int totalAttack,
+                              int totalHealth) {}
+}
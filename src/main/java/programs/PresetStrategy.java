@@ -0,0 +1,9 @@
+package programs;
+
+// Способ выбора состава армии в GeneratePresetImpl
+public enum PresetStrategy {
+    // Жадное заполнение бюджета по убыванию атаки на единицу стоимости
+    GREEDY,
+    // Точное решение ограниченного рюкзака: максимум суммарной атаки, при равенстве - здоровья
+    OPTIMAL
+}
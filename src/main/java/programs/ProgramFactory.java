@@ -0,0 +1,13 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Program;
+
+// Создаёт программу поведения юнита для копии армии; программа держит ссылки на свои армии,
+// поэтому при копировании армий её нельзя переиспользовать
+@FunctionalInterface
+public interface ProgramFactory {
+
+    Program create(Unit unit, Army allyArmy, Army enemyArmy, boolean isPlayerUnit);
+}
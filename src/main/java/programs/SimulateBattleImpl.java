@@ -3,111 +3,216 @@ package programs;
 import com.battle.heroes.army.Army;
 import com.battle.heroes.army.Unit;
 import com.battle.heroes.army.programs.PrintBattleLog;
+import com.battle.heroes.army.programs.Program;
 import com.battle.heroes.army.programs.SimulateBattle;
+import com.battle.heroes.util.GameSpeedUtil;
 
+import java.lang.reflect.Field;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class SimulateBattleImpl implements SimulateBattle {
+    // Program хранит GameSpeedUtil в защищённом поле без геттера
+    private static final Field GAME_SPEED_FIELD = findGameSpeedField();
+
     private PrintBattleLog printBattleLog;
+    private final List<BattleEventListener> battleEventListeners = new ArrayList<>();
+    private final VirtualClock clock = new VirtualClock();
+    private SimulationMode simulationMode = SimulationMode.PACED;
+    private int completedRounds;
+
+    public void setPrintBattleLog(PrintBattleLog printBattleLog) {
+        this.printBattleLog = printBattleLog;
+    }
+
+    // Слушатели узнают о перемещениях и гибели юнитов после каждого хода
+    public void addBattleEventListener(BattleEventListener listener) {
+        battleEventListeners.add(listener);
+    }
+
+    // В режиме HEADLESS паузы программ юнитов на время боя отключаются, ход боя не меняется
+    public void setSimulationMode(SimulationMode simulationMode) {
+        this.simulationMode = simulationMode;
+    }
+
+    // Часы последнего боя: число ходов, число пауз программ и время, которое эти паузы заняли бы
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    // Число завершённых раундов последнего боя; бой всегда заканчивается на границе раунда
+    public int getCompletedRounds() {
+        return completedRounds;
+    }
 
     @Override
     public void simulate(Army playerArmy, Army computerArmy) throws InterruptedException {
-        int currentRound = 1;
+        clock.reset();
+        completedRounds = 0;
 
-        List<Unit> playerUnits = playerArmy.getUnits().stream()
-                .filter(Unit::isAlive)
-                .collect(Collectors.toList());
+        // GameSpeedUtil программ может быть общим с другими боями, поэтому сам он не меняется:
+        // на время боя поле программы указывает на собственный счётчик пауз, затем исходный возвращается
+        Map<Program, GameSpeedUtil> originalSpeeds = installPauseCounters(playerArmy, computerArmy);
 
-        List<Unit> computerUnits = computerArmy.getUnits().stream()
-                .filter(Unit::isAlive)
-                .collect(Collectors.toList());
+        try {
+            runBattle(playerArmy, computerArmy);
+        } finally {
+            originalSpeeds.forEach(this::setGameSpeedOf);
+
+            // Журнал дописывается до возврата: после simulate() весь бой уже у получателя
+            if (printBattleLog instanceof BattleLog battleLog) {
+                battleLog.flush();
+            }
+        }
+    }
+
+    private void runBattle(Army playerArmy, Army computerArmy) throws InterruptedException {
+        int currentRound = 1;
+
+        TurnScheduler scheduler = new TurnScheduler(playerArmy.getUnits(), computerArmy.getUnits());
+        int playerUnitCount = scheduler.getAlivePlayerCount();
+        int computerUnitCount = scheduler.getAliveComputerCount();
 
         // Если одна из армий уже пустая, битва не начинается
-        if (playerUnits.isEmpty() || computerUnits.isEmpty()) {
+        if (playerUnitCount == 0 || computerUnitCount == 0) {
             System.out.println("Battle cannot start: one of the armies has no living units");
             return;
         }
 
-        Set<Unit> unitsActedThisRound = new HashSet<>();
-
-        while (!playerUnits.isEmpty() && !computerUnits.isEmpty()) {
+        while (playerUnitCount > 0 && computerUnitCount > 0) {
             boolean allUnitsActed = true;
 
-            // Очереди приоритета для юнитов, отсортированных по атаке
-            PriorityQueue<Unit> playerQueue = new PriorityQueue<>(
-                    Comparator.comparingInt(Unit::getBaseAttack).reversed()
-            );
-            PriorityQueue<Unit> computerQueue = new PriorityQueue<>(
-                    Comparator.comparingInt(Unit::getBaseAttack).reversed()
-            );
-
-            // Обновляем списки живых юнитов
-            playerUnits = playerArmy.getUnits().stream()
-                    .filter(Unit::isAlive)
-                    .collect(Collectors.toList());
-            computerUnits = computerArmy.getUnits().stream()
-                    .filter(Unit::isAlive)
-                    .collect(Collectors.toList());
-
-            // Добавляем в очередь только тех, кто ещё не действовал в этом раунде
-            playerQueue.addAll(playerUnits.stream()
-                    .filter(unit -> !unitsActedThisRound.contains(unit))
-                    .collect(Collectors.toList()));
-            computerQueue.addAll(computerUnits.stream()
-                    .filter(unit -> !unitsActedThisRound.contains(unit))
-                    .collect(Collectors.toList()));
-
-            // Симуляция раунда
-            while (!playerQueue.isEmpty() || !computerQueue.isEmpty()) {
-                // Ход юнита игрока
-                if (!playerQueue.isEmpty()) {
-                    Unit playerUnit = playerQueue.poll();
-                    Unit target = performUnitAttack(playerUnit);
+            // Численность армий фиксируется в начале раунда и после каждого прерванного хода
+            playerUnitCount = scheduler.getAlivePlayerCount();
+            computerUnitCount = scheduler.getAliveComputerCount();
 
-                    if (target != null && !target.isAlive() &&
-                            !unitsActedThisRound.contains(target)) {
-                        allUnitsActed = false;
-                        break;
-                    }
-
-                    unitsActedThisRound.add(playerUnit);
+            // Симуляция раунда: стороны ходят по очереди, пока у обеих есть не ходившие юниты
+            while (scheduler.hasPendingUnits()) {
+                // Ход юнита игрока
+                Unit playerUnit = scheduler.pollPlayerUnit();
+                if (playerUnit != null && interruptsRound(scheduler, playerUnit, performUnitAttack(playerUnit))) {
+                    allUnitsActed = false;
+                    break;
                 }
 
                 // Ход юнита компьютера
-                if (!computerQueue.isEmpty()) {
-                    Unit computerUnit = computerQueue.poll();
-                    Unit target = performUnitAttack(computerUnit);
-
-                    if (target != null && !target.isAlive() &&
-                            !unitsActedThisRound.contains(target)) {
-                        allUnitsActed = false;
-                        break;
-                    }
-
-                    unitsActedThisRound.add(computerUnit);
+                Unit computerUnit = scheduler.pollComputerUnit();
+                if (computerUnit != null && interruptsRound(scheduler, computerUnit, performUnitAttack(computerUnit))) {
+                    allUnitsActed = false;
+                    break;
                 }
             }
 
             // Если все юниты действовали в этом раунде, завершаем раунд
             if (allUnitsActed) {
-                printRoundSummary(currentRound, playerUnits.size(), computerUnits.size());
+                printRoundSummary(currentRound, playerUnitCount, computerUnitCount);
                 currentRound++;
-                unitsActedThisRound.clear();
+                completedRounds++;
+                scheduler.startNextRound();
             }
         }
 
         // Битва завершена
-        printBattleResult(playerUnits.size(), computerUnits.size());
+        printBattleResult(playerUnitCount, computerUnitCount);
+    }
+
+    // Гибель ещё не ходившего юнита прерывает раунд: атаковавший не считается походившим
+    // и ходит снова, когда очереди продолжатся без погибшего
+    private boolean interruptsRound(TurnScheduler scheduler, Unit attacker, Unit target) {
+        if (target == null || target.isAlive() || !scheduler.markDead(target)) {
+            return false;
+        }
+
+        scheduler.requeue(attacker);
+        return true;
     }
 
     private Unit performUnitAttack(Unit attacker) throws InterruptedException {
+        int fromX = attacker.getxCoordinate();
+        int fromY = attacker.getyCoordinate();
+
         Unit target = attacker.getProgram().attack();
+        clock.advanceTurn();
         printBattleLog.printBattleLog(attacker, target);
+        publishBattleEvents(attacker, fromX, fromY, target);
         return target;
     }
 
+    private void publishBattleEvents(Unit attacker, int fromX, int fromY, Unit target) {
+        if (battleEventListeners.isEmpty()) {
+            return;
+        }
+
+        // Программы выбирают цель только среди живых, поэтому мёртвая цель погибла именно в этом ходе
+        boolean attackerMoved = attacker.getxCoordinate() != fromX || attacker.getyCoordinate() != fromY;
+        boolean targetDied = target != null && !target.isAlive();
+
+        for (BattleEventListener listener : battleEventListeners) {
+            if (attackerMoved) {
+                listener.onUnitMoved(attacker, fromX, fromY);
+            }
+            if (targetDied) {
+                listener.onUnitDied(target);
+            }
+        }
+    }
+
+    // Программы без GameSpeedUtil остаются как есть; программа, общая для нескольких юнитов, оборачивается один раз
+    private Map<Program, GameSpeedUtil> installPauseCounters(Army playerArmy, Army computerArmy) {
+        Map<Program, GameSpeedUtil> originalSpeeds = new IdentityHashMap<>();
+        boolean headless = simulationMode == SimulationMode.HEADLESS;
+
+        for (Army army : List.of(playerArmy, computerArmy)) {
+            for (Unit unit : army.getUnits()) {
+                Program program = unit.getProgram();
+                GameSpeedUtil gameSpeed = gameSpeedOf(program);
+                if (gameSpeed == null || originalSpeeds.containsKey(program)) {
+                    continue;
+                }
+
+                originalSpeeds.put(program, gameSpeed);
+                setGameSpeedOf(program, new PauseCountingGameSpeed(gameSpeed, headless, clock));
+            }
+        }
+
+        return originalSpeeds;
+    }
+
+    private GameSpeedUtil gameSpeedOf(Program program) {
+        if (program == null) {
+            return null;
+        }
+
+        try {
+            return (GameSpeedUtil) GAME_SPEED_FIELD.get(program);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access game speed of " + program.getClass().getName(), e);
+        }
+    }
+
+    private void setGameSpeedOf(Program program, GameSpeedUtil gameSpeed) {
+        try {
+            GAME_SPEED_FIELD.set(program, gameSpeed);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access game speed of " + program.getClass().getName(), e);
+        }
+    }
+
+    private static Field findGameSpeedField() {
+        try {
+            Field field = Program.class.getDeclaredField("simSpeed");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Program has no simSpeed field", e);
+        }
+    }
+
     private void printRoundSummary(int round, int playerUnitCount, int computerUnitCount) {
+        if (printBattleLog instanceof BattleLog battleLog) {
+            battleLog.publish(new BattleLogEntry.RoundSummary(round, playerUnitCount, computerUnitCount));
+            return;
+        }
+
         System.out.println();
         System.out.println("Round " + round + " is over!");
         System.out.println("Player army has " + playerUnitCount + " units");
@@ -116,6 +221,11 @@ public class SimulateBattleImpl implements SimulateBattle {
     }
 
     private void printBattleResult(int playerUnitCount, int computerUnitCount) {
+        if (printBattleLog instanceof BattleLog battleLog) {
+            battleLog.publish(new BattleLogEntry.BattleResult(playerUnitCount, computerUnitCount));
+            return;
+        }
+
         System.out.println("Battle is over!");
 
         if (playerUnitCount == 0 && computerUnitCount == 0) {
@@ -126,4 +236,27 @@ public class SimulateBattleImpl implements SimulateBattle {
             System.out.println("Computer wins!");
         }
     }
-}
\ No newline at end of file
+
+    // Программы движка читают скорость ровно один раз перед каждым Thread.sleep: на каждом шаге пути
+    // и после удара. Поэтому каждое чтение - одна пауза, и часы учитывают её с текущей исходной скоростью.
+    // В HEADLESS программа получает 0 и не ждёт, в PACED - исходную скорость
+    private static final class PauseCountingGameSpeed extends GameSpeedUtil {
+        private final GameSpeedUtil original;
+        private final boolean headless;
+        private final VirtualClock clock;
+
+        private PauseCountingGameSpeed(GameSpeedUtil original, boolean headless, VirtualClock clock) {
+            super(0);
+            this.original = original;
+            this.headless = headless;
+            this.clock = clock;
+        }
+
+        @Override
+        public Integer getGameSpeed() {
+            Integer speed = original.getGameSpeed();
+            clock.advancePause(speed == null ? 0 : speed);
+            return headless ? Integer.valueOf(0) : speed;
+        }
+    }
+}
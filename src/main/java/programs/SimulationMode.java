@@ -0,0 +1,9 @@
+package programs;
+
+// Режим выполнения боя в SimulateBattleImpl
+public enum SimulationMode {
+    // Программы юнитов выдерживают паузы GameSpeedUtil для анимации
+    PACED,
+    // Программы юнитов на время боя получают нулевую паузу, паузы только учитываются виртуальными часами
+    HEADLESS
+}
@@ -0,0 +1,65 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Program;
+import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import com.battle.heroes.army.programs.computer.ComputerArcherProgram;
+import com.battle.heroes.army.programs.computer.ComputerKnightProgram;
+import com.battle.heroes.army.programs.computer.ComputerPikemanProgram;
+import com.battle.heroes.army.programs.computer.ComputerSwordsmanProgram;
+import com.battle.heroes.army.programs.user.UserArcherProgram;
+import com.battle.heroes.army.programs.user.UserKnightProgram;
+import com.battle.heroes.army.programs.user.UserPikemanProgram;
+import com.battle.heroes.army.programs.user.UserSwordsmanProgram;
+import com.battle.heroes.util.GameSpeedUtil;
+
+import java.util.function.Supplier;
+
+// Программы движка по типу юнита: Knight, Swordsman, Pikeman и Archer.
+// Паузы отключены, а поиск целей и путей создаётся заново для каждого юнита,
+// чтобы копии армий в разных потоках не делили изменяемое состояние
+public class StandardProgramFactory implements ProgramFactory {
+    private final Supplier<SuitableForAttackUnitsFinder> suitableUnitsFinders;
+    private final Supplier<UnitTargetPathFinder> pathFinders;
+
+    public StandardProgramFactory() {
+        this(SuitableForAttackUnitsFinderImpl::new, UnitTargetPathFinderImpl::new);
+    }
+
+    public StandardProgramFactory(Supplier<SuitableForAttackUnitsFinder> suitableUnitsFinders,
+                                  Supplier<UnitTargetPathFinder> pathFinders) {
+        this.suitableUnitsFinders = suitableUnitsFinders;
+        this.pathFinders = pathFinders;
+    }
+
+    @Override
+    public Program create(Unit unit, Army allyArmy, Army enemyArmy, boolean isPlayerUnit) {
+        GameSpeedUtil speed = new GameSpeedUtil(0);
+
+        if (isPlayerUnit) {
+            return switch (unit.getUnitType()) {
+                case "Knight" -> new UserKnightProgram(unit, allyArmy, enemyArmy, speed,
+                        suitableUnitsFinders.get(), pathFinders.get());
+                case "Swordsman" -> new UserSwordsmanProgram(unit, allyArmy, enemyArmy, speed,
+                        suitableUnitsFinders.get(), pathFinders.get());
+                case "Pikeman" -> new UserPikemanProgram(unit, allyArmy, enemyArmy, speed,
+                        suitableUnitsFinders.get(), pathFinders.get());
+                case "Archer" -> new UserArcherProgram(unit, allyArmy, enemyArmy, speed);
+                default -> throw new IllegalArgumentException("Unknown unit type: " + unit.getUnitType());
+            };
+        }
+
+        return switch (unit.getUnitType()) {
+            case "Knight" -> new ComputerKnightProgram(unit, allyArmy, enemyArmy, speed,
+                    suitableUnitsFinders.get(), pathFinders.get());
+            case "Swordsman" -> new ComputerSwordsmanProgram(unit, allyArmy, enemyArmy, speed,
+                    suitableUnitsFinders.get(), pathFinders.get());
+            case "Pikeman" -> new ComputerPikemanProgram(unit, allyArmy, enemyArmy, speed,
+                    suitableUnitsFinders.get(), pathFinders.get());
+            case "Archer" -> new ComputerArcherProgram(unit, allyArmy, enemyArmy, speed);
+            default -> throw new IllegalArgumentException("Unknown unit type: " + unit.getUnitType());
+        };
+    }
+}
@@ -8,17 +8,61 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 public class SuitableForAttackUnitsFinderImpl implements SuitableForAttackUnitsFinder {
+    private final BattlefieldGeometry geometry;
+    private final List<AttackableUnitsTracker> attackableUnitsTrackers;
+
+    public SuitableForAttackUnitsFinderImpl() {
+        this(BattlefieldGeometry.DEFAULT);
+    }
+
+    public SuitableForAttackUnitsFinderImpl(BattlefieldGeometry geometry) {
+        this(geometry, List.of());
+    }
+
+    public SuitableForAttackUnitsFinderImpl(List<AttackableUnitsTracker> attackableUnitsTrackers) {
+        this(BattlefieldGeometry.DEFAULT, attackableUnitsTrackers);
+    }
+
+    // Трекеры должны получать события боя; ряды армии без трекера просматриваются как обычно
+    public SuitableForAttackUnitsFinderImpl(BattlefieldGeometry geometry,
+                                            List<AttackableUnitsTracker> attackableUnitsTrackers) {
+        this.geometry = geometry;
+        this.attackableUnitsTrackers = List.copyOf(attackableUnitsTrackers);
+    }
 
     @Override
     public List<Unit> getSuitableUnits(List<List<Unit>> battlefieldRows, boolean isPlayerUnit) {
+        // Множество поддерживается по событиям боя, пересчитывать ряды не нужно
+        for (AttackableUnitsTracker tracker : attackableUnitsTrackers) {
+            if (tracker.matches(battlefieldRows, isPlayerUnit)) {
+                List<Unit> suitableUnits = tracker.getAttackableUnits();
+                if (suitableUnits.isEmpty()) {
+                    System.out.println("Unit cannot find target for attack!");
+                }
+                return suitableUnits;
+            }
+        }
+
         List<Unit> suitableUnits = new ArrayList<>();
 
         // Определяем направление атаки (вперед для игрока, назад для врага)
         int attackDirection = isPlayerUnit ? 1 : -1;
 
+        // Атакующий ряд: у игрока последний ряд армии, у врага ряд 0
+        int attackerRowIndex = isPlayerUnit ? geometry.armyDepth() - 1 : 0;
+        int targetRowIndex = attackerRowIndex + attackDirection;
+
+        // Колонки живых юнитов ряда перед атакующими собираются в битовую маску один раз за вызов,
+        // и проверка врага в той же колонке становится проверкой одного бита.
+        // Если целевой ряд выходит за границы, атакующие юниты достигли тыла и маска не нужна
+        long[] occupiedColumns = isValidRowIndex(targetRowIndex, battlefieldRows.size())
+                ? aliveColumns(battlefieldRows.get(targetRowIndex))
+                : null;
+
         // Проходим по всем строкам (рядам) поля боя
         for (int currentRowIndex = 0; currentRowIndex < battlefieldRows.size(); currentRowIndex++) {
             List<Unit> currentRow = battlefieldRows.get(currentRowIndex);
+            boolean isAttackerRow = currentRowIndex == attackerRowIndex;
 
             // Проверяем каждый юнит в текущем ряду
             for (Unit unit : currentRow) {
@@ -26,35 +70,8 @@ public class SuitableForAttackUnitsFinderImpl implements SuitableForAttackUnitsF
                     continue;
                 }
 
-                // Определяем, является ли юнит атакующим
-                boolean isAttacker = isPlayerUnit ?
-                        (currentRowIndex == 2) :  // Предполагаем, что игрок в ряду 2
-                        (currentRowIndex == 0);   // Враг в ряду 0
-
-                // Для атакующих юнитов проверяем наличие врагов спереди
-                if (isAttacker) {
-                    int targetRowIndex = currentRowIndex + attackDirection;
-
-                    if (isValidRowIndex(targetRowIndex, battlefieldRows.size())) {
-                        List<Unit> targetRow = battlefieldRows.get(targetRowIndex);
-
-                        // Проверяем, есть ли в целевом ряду враг в той же колонке
-                        boolean hasEnemyInSameColumn = targetRow.stream()
-                                .anyMatch(targetUnit ->
-                                        targetUnit.isAlive() &&
-                                                targetUnit.getyCoordinate() == unit.getyCoordinate());
-
-                        // Если врага нет в той же колонке спереди, юнит может атаковать
-                        if (!hasEnemyInSameColumn) {
-                            suitableUnits.add(unit);
-                        }
-                    } else {
-                        // Если целевой ряд выходит за границы, юнит может атаковать (достиг тыла)
-                        suitableUnits.add(unit);
-                    }
-                }
-                // Для юнитов, которые не являются первым рядом, они могут атаковать всегда
-                else {
+                // Юниты не первого ряда могут атаковать всегда, атакующие - если спереди нет врага
+                if (!isAttackerRow || !isColumnOccupied(occupiedColumns, unit.getyCoordinate())) {
                     suitableUnits.add(unit);
                 }
             }
@@ -68,6 +85,32 @@ public class SuitableForAttackUnitsFinderImpl implements SuitableForAttackUnitsF
         return suitableUnits;
     }
 
+    // Бит y установлен, если в колонке y ряда есть живой юнит
+    private long[] aliveColumns(List<Unit> row) {
+        int maxColumn = -1;
+        for (Unit unit : row) {
+            if (unit.isAlive()) {
+                maxColumn = Math.max(maxColumn, unit.getyCoordinate());
+            }
+        }
+
+        long[] columns = new long[(maxColumn >> 6) + 1];
+        for (Unit unit : row) {
+            int column = unit.getyCoordinate();
+            if (unit.isAlive() && column >= 0) {
+                columns[column >> 6] |= 1L << column;
+            }
+        }
+        return columns;
+    }
+
+    private boolean isColumnOccupied(long[] columns, int column) {
+        return columns != null
+                && column >= 0
+                && (column >> 6) < columns.length
+                && (columns[column >> 6] & (1L << column)) != 0;
+    }
+
     private boolean isValidRowIndex(int rowIndex, int totalRows) {
         return rowIndex >= 0 && rowIndex < totalRows;
     }
@@ -0,0 +1,126 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Очерёдность ходов в бою.
+// Юниты каждой армии один раз в начале боя упорядочиваются по убыванию атаки (при равной атаке -
+// по месту в армии) и получают номер в этом порядке. Живые и ещё не ходившие в раунде юниты хранятся
+// битовыми множествами номеров, поэтому ход, гибель юнита и начало раунда не перестраивают очереди:
+// следующий юнит - младший установленный бит, гибель - сброс бита
+final class TurnScheduler {
+    private final Side playerSide;
+    private final Side computerSide;
+    private final Map<Unit, Slot> slots = new IdentityHashMap<>();
+
+    TurnScheduler(List<Unit> playerUnits, List<Unit> computerUnits) {
+        this.playerSide = new Side(playerUnits);
+        this.computerSide = new Side(computerUnits);
+        playerSide.register(slots);
+        computerSide.register(slots);
+    }
+
+    int getAlivePlayerCount() {
+        return playerSide.aliveCount;
+    }
+
+    int getAliveComputerCount() {
+        return computerSide.aliveCount;
+    }
+
+    boolean hasPendingUnits() {
+        return !playerSide.pending.isEmpty() || !computerSide.pending.isEmpty();
+    }
+
+    // Следующий ещё не ходивший юнит игрока или null, если все уже походили
+    Unit pollPlayerUnit() {
+        return playerSide.poll();
+    }
+
+    Unit pollComputerUnit() {
+        return computerSide.poll();
+    }
+
+    // Возвращает юнит в очередь раунда: его ход прерван и будет повторён
+    void requeue(Unit unit) {
+        Slot slot = slots.get(unit);
+        if (slot != null) {
+            slot.side.pending.set(slot.rank);
+        }
+    }
+
+    // Учитывает гибель юнита; true, если он погиб, не успев походить в этом раунде
+    boolean markDead(Unit unit) {
+        Slot slot = slots.get(unit);
+        if (slot == null || !slot.side.alive.get(slot.rank)) {
+            return false;
+        }
+
+        slot.side.alive.clear(slot.rank);
+        slot.side.aliveCount--;
+
+        boolean wasPending = slot.side.pending.get(slot.rank);
+        slot.side.pending.clear(slot.rank);
+        return wasPending;
+    }
+
+    // Новый раунд: ходить снова могут все живые юниты
+    void startNextRound() {
+        playerSide.resetPending();
+        computerSide.resetPending();
+    }
+
+    private static final class Side {
+        private final Unit[] unitsByRank;
+        private final BitSet alive;
+        private final BitSet pending;
+        private int aliveCount;
+
+        private Side(List<Unit> units) {
+            // Атака юнитов в бою не меняется, поэтому порядок вычисляется один раз
+            this.unitsByRank = IntStream.range(0, units.size())
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingInt(i -> units.get(i).getBaseAttack()).reversed()
+                            .thenComparingInt(i -> i))
+                    .map(units::get)
+                    .toArray(Unit[]::new);
+
+            this.alive = new BitSet(unitsByRank.length);
+            for (int rank = 0; rank < unitsByRank.length; rank++) {
+                if (unitsByRank[rank].isAlive()) {
+                    alive.set(rank);
+                }
+            }
+            this.aliveCount = alive.cardinality();
+            this.pending = (BitSet) alive.clone();
+        }
+
+        private void register(Map<Unit, Slot> slots) {
+            for (int rank = 0; rank < unitsByRank.length; rank++) {
+                slots.put(unitsByRank[rank], new Slot(this, rank));
+            }
+        }
+
+        private Unit poll() {
+            int rank = pending.nextSetBit(0);
+            if (rank < 0) {
+                return null;
+            }
+            pending.clear(rank);
+            return unitsByRank[rank];
+        }
+
+        private void resetPending() {
+            pending.clear();
+            pending.or(alive);
+        }
+    }
+
+    private record Slot(Side side, int rank) {}
+}
@@ -2,16 +2,12 @@ package programs;
 
 import com.battle.heroes.army.Unit;
 import com.battle.heroes.army.programs.Edge;
-import com.battle.heroes.army.programs.EdgeDistance;
 import com.battle.heroes.army.programs.UnitTargetPathFinder;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
-    private static final int WIDTH = 27;
-    private static final int HEIGHT = 21;
-    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int NO_CELL = -1;
 
     // 8 направлений движения (включая диагонали)
     private static final int[][] DIRECTIONS = {
@@ -19,242 +15,365 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
             {-1, -1}, {1, 1}, {-1, 1}, {1, -1}  // Диагонали
     };
 
+    private final BattlefieldGeometry geometry;
+    private final PathSearchAlgorithm algorithm;
+    private final BattlefieldIndex battlefieldIndex;
+
+    public UnitTargetPathFinderImpl() {
+        this(BattlefieldGeometry.DEFAULT);
+    }
+
+    // Алгоритм выбирается по размеру поля, см. BattlefieldGeometry.defaultPathSearchAlgorithm
+    public UnitTargetPathFinderImpl(BattlefieldGeometry geometry) {
+        this(geometry, geometry.defaultPathSearchAlgorithm(), null);
+    }
+
+    public UnitTargetPathFinderImpl(PathSearchAlgorithm algorithm) {
+        this(algorithm, null);
+    }
+
+    public UnitTargetPathFinderImpl(PathSearchAlgorithm algorithm, BattlefieldIndex battlefieldIndex) {
+        this(BattlefieldGeometry.DEFAULT, algorithm, battlefieldIndex);
+    }
+
+    // Препятствия копируются из индекса поля, который должен охватывать все юниты боя,
+    // вместо обхода allUnits на каждый поиск
+    public UnitTargetPathFinderImpl(BattlefieldGeometry geometry, PathSearchAlgorithm algorithm,
+                                    BattlefieldIndex battlefieldIndex) {
+        if (battlefieldIndex != null && (battlefieldIndex.getWidth() != geometry.width()
+                || battlefieldIndex.getHeight() != geometry.height())) {
+            throw new IllegalArgumentException("Battlefield index " + battlefieldIndex.getWidth() + "x"
+                    + battlefieldIndex.getHeight() + " does not match " + geometry);
+        }
+
+        this.geometry = geometry;
+        this.algorithm = algorithm;
+        this.battlefieldIndex = battlefieldIndex;
+    }
+
+    public BattlefieldGeometry getGeometry() {
+        return geometry;
+    }
+
     @Override
     public List<Edge> getTargetPath(Unit attacker, Unit target, List<Unit> allUnits) {
-        // Матрицы для алгоритма
-        int[][] distances = new int[WIDTH][HEIGHT];
-        boolean[][] visited = new boolean[WIDTH][HEIGHT];
-        Edge[][] previous = new Edge[WIDTH][HEIGHT];
+        return findPath(attacker, target, allUnits).asEdges();
+    }
 
-        // Инициализация матриц
-        initializeMatrices(distances, visited);
+    // Тот же поиск, но путь возвращается упакованным массивом клеток без объектов Edge
+    public PackedPath findPath(Unit attacker, Unit target, List<Unit> allUnits) {
+        return switch (algorithm) {
+            case DIJKSTRA -> findPathDijkstra(attacker, target, allUnits);
+            case A_STAR -> findPathAStar(attacker, target, allUnits);
+            case BREADTH_FIRST -> findPathBreadthFirst(attacker, target, allUnits);
+        };
+    }
 
-        // Приоритетная очередь для алгоритма Dijkstra
-        PriorityQueue<EdgeDistance> queue = new PriorityQueue<>(
-                Comparator.comparingInt(EdgeDistance::getDistance)
-        );
+    private PackedPath findPathDijkstra(Unit attacker, Unit target, List<Unit> allUnits) {
+        // Буферы потока: матрицы и очередь переиспользуются между вызовами
+        PathSearchScratch scratch = PathSearchScratch.acquire(geometry.width(), geometry.height());
 
-        int startX = attacker.getxCoordinate();
-        int startY = attacker.getyCoordinate();
-        distances[startX][startY] = 0;
-        queue.add(new EdgeDistance(startX, startY, 0));
+        // Собираем непроходимые клетки (живые юниты, кроме атакующего и цели)
+        OccupancyGrid obstacles = getAllObstacles(scratch, allUnits, attacker, target);
 
-        // Собираем координаты непроходимых клеток (живые юниты, кроме атакующего и цели)
-        Set<String> obstacles = getAllObstacles(allUnits, attacker, target);
+        int startCell = obstacles.index(attacker.getxCoordinate(), attacker.getyCoordinate());
+        int targetCell = obstacles.index(target.getxCoordinate(), target.getyCoordinate());
+
+        // Приоритетная очередь по индексам клеток с уменьшением ключа вместо объекта на каждое добавление
+        IndexedMinHeap queue = scratch.heap;
+        scratch.reach(startCell, 0, NO_CELL);
+        queue.insertOrDecrease(startCell, 0);
 
         // Алгоритм поиска пути
+        int expanded = 0;
         while (!queue.isEmpty()) {
-            EdgeDistance current = queue.poll();
-            int currentX = current.getX();
-            int currentY = current.getY();
-
-            // Если уже посещали эту клетку, пропускаем
-            if (visited[currentX][currentY]) {
-                continue;
-            }
-
-            visited[currentX][currentY] = true;
+            int currentCell = queue.poll();
+            scratch.close(currentCell);
+            expanded++;
 
             // Если достигли цели
-            if (currentX == target.getxCoordinate() && currentY == target.getyCoordinate()) {
+            if (currentCell == targetCell) {
                 break;
             }
 
             // Исследуем соседние клетки
-            exploreNeighbors(currentX, currentY, distances, visited, previous,
-                    queue, obstacles, target);
+            exploreNeighbors(currentCell, scratch, obstacles);
         }
 
-        // Восстанавливаем путь или возвращаем пустой список
-        return reconstructPath(startX, startY, target, previous, attacker);
-    }
+        scratch.expandedNodes = expanded;
 
-    private void initializeMatrices(int[][] distances, boolean[][] visited) {
-        for (int x = 0; x < WIDTH; x++) {
-            Arrays.fill(distances[x], INFINITY);
-            Arrays.fill(visited[x], false);
-        }
+        // Восстанавливаем путь или возвращаем пустой список
+        return reconstructPath(startCell, targetCell, scratch, attacker, target);
     }
 
-    private Set<String> getAllObstacles(List<Unit> allUnits, Unit attacker, Unit target) {
-        Set<String> obstacles = new HashSet<>();
-
-        for (Unit unit : allUnits) {
-            // Пропускаем атакующего, цель и мертвых юнитов
-            if (unit == attacker || unit == target || !unit.isAlive()) {
-                continue;
-            }
-
-            int x = unit.getxCoordinate();
-            int y = unit.getyCoordinate();
-            obstacles.add(x + "," + y);
+    private OccupancyGrid getAllObstacles(PathSearchScratch scratch, List<Unit> allUnits,
+                                          Unit attacker, Unit target) {
+        OccupancyGrid obstacles = scratch.obstacles;
+        if (battlefieldIndex != null) {
+            battlefieldIndex.fillObstacles(obstacles, attacker, target);
+        } else {
+            obstacles.fillObstacles(allUnits, attacker, target);
         }
-
         return obstacles;
     }
 
-    private void exploreNeighbors(int currentX, int currentY,
-                                  int[][] distances, boolean[][] visited,
-                                  Edge[][] previous, PriorityQueue<EdgeDistance> queue,
-                                  Set<String> obstacles, Unit target) {
+    private void exploreNeighbors(int currentCell, PathSearchScratch scratch, OccupancyGrid obstacles) {
+        int currentX = currentCell / geometry.height();
+        int currentY = currentCell % geometry.height();
+
         for (int[] direction : DIRECTIONS) {
             int neighborX = currentX + direction[0];
             int neighborY = currentY + direction[1];
 
             // Проверяем, является ли соседняя клетка проходимой
-            if (!isValidCell(neighborX, neighborY, obstacles, target)) {
+            if (!isValidCell(neighborX, neighborY, obstacles)) {
                 continue;
             }
 
             // Если клетка уже посещена, пропускаем
-            if (visited[neighborX][neighborY]) {
+            int neighborCell = obstacles.index(neighborX, neighborY);
+            if (scratch.isClosed(neighborCell)) {
                 continue;
             }
 
             // Рассчитываем новое расстояние
-            int newDistance = distances[currentX][currentY] + 1;
+            int newDistance = scratch.distances[currentCell] + 1;
 
             // Если нашли более короткий путь
-            if (newDistance < distances[neighborX][neighborY]) {
-                distances[neighborX][neighborY] = newDistance;
-                previous[neighborX][neighborY] = new Edge(currentX, currentY);
-                queue.add(new EdgeDistance(neighborX, neighborY, newDistance));
+            if (!scratch.isReached(neighborCell) || newDistance < scratch.distances[neighborCell]) {
+                scratch.reach(neighborCell, newDistance, currentCell);
+                scratch.heap.insertOrDecrease(neighborCell, newDistance);
             }
         }
     }
 
-    private boolean isValidCell(int x, int y, Set<String> obstacles, Unit target) {
-        // Проверяем границы поля
-        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
-            return false;
-        }
-
-        String cellKey = x + "," + y;
-
-        // Проверяем, является ли клетка препятствием
-        if (obstacles.contains(cellKey)) {
-            return false;
-        }
+    private boolean isValidCell(int x, int y, OccupancyGrid obstacles) {
+        // Клетка в пределах поля и не занята; цель в препятствия не попадает, поэтому всегда проходима
+        return obstacles.isPassable(x, y);
+    }
 
-        // Проверяем, является ли клетка целью (цель всегда проходима)
-        if (x == target.getxCoordinate() && y == target.getyCoordinate()) {
-            return true;
-        }
+    // Эвристика для A*: все 8 шагов стоят 1, поэтому расстояние Чебышёва точно оценивает путь
+    // без препятствий и никогда его не переоценивает (допустимая и монотонная)
+    private int heuristic(int x1, int y1, int x2, int y2) {
+        return Math.max(Math.abs(x1 - x2), Math.abs(y1 - y2));
+    }
 
-        return true;
+    // Альтернативная версия с алгоритмом A*
+    public List<Edge> getTargetPathAStar(Unit attacker, Unit target, List<Unit> allUnits) {
+        return findPathAStar(attacker, target, allUnits).asEdges();
     }
 
-    private List<Edge> reconstructPath(int startX, int startY, Unit target,
-                                       Edge[][] previous, Unit attacker) {
+    private PackedPath findPathAStar(Unit attacker, Unit target, List<Unit> allUnits) {
+        // Плоские массивы по индексу клетки (x * height + y) из буферов потока
+        PathSearchScratch scratch = PathSearchScratch.acquire(geometry.width(), geometry.height());
+        OccupancyGrid obstacles = getAllObstacles(scratch, allUnits, attacker, target);
+        int[] gScore = scratch.distances;
+
+        int startX = attacker.getxCoordinate();
+        int startY = attacker.getyCoordinate();
         int targetX = target.getxCoordinate();
         int targetY = target.getyCoordinate();
+        int startCell = obstacles.index(startX, startY);
+        int targetCell = obstacles.index(targetX, targetY);
 
-        // Если путь не найден
-        if (previous[targetX][targetY] == null) {
-            System.out.println("Unit " + attacker.getName() +
-                    " cannot find path to attack unit " + target.getName());
-            return new ArrayList<>();
-        }
+        // Открытое множество с decrease-key: ключ клетки - её f = g + h
+        IndexedMinHeap openSet = scratch.heap;
+        scratch.reach(startCell, 0, NO_CELL);
+        openSet.insertOrDecrease(startCell, heuristic(startX, startY, targetX, targetY));
 
-        // Восстанавливаем путь от цели к началу
-        List<Edge> path = new ArrayList<>();
-        int currentX = targetX;
-        int currentY = targetY;
+        int expanded = 0;
+        while (!openSet.isEmpty()) {
+            int currentCell = openSet.poll();
+            expanded++;
 
-        while (currentX != startX || currentY != startY) {
-            path.add(new Edge(currentX, currentY));
-            Edge prev = previous[currentX][currentY];
-            currentX = prev.getX();
-            currentY = prev.getY();
-        }
+            if (currentCell == targetCell) {
+                break;
+            }
 
-        // Добавляем стартовую точку
-        path.add(new Edge(startX, startY));
+            // Эвристика монотонна, поэтому закрытая клетка повторно не открывается
+            scratch.close(currentCell);
+            int currentX = currentCell / geometry.height();
+            int currentY = currentCell % geometry.height();
 
-        // Разворачиваем путь (от старта к цели)
-        Collections.reverse(path);
+            for (int[] direction : DIRECTIONS) {
+                int neighborX = currentX + direction[0];
+                int neighborY = currentY + direction[1];
 
-        return path;
-    }
+                if (!isValidCell(neighborX, neighborY, obstacles)) {
+                    continue;
+                }
 
-    // Дополнительный метод для эвристической функции (для алгоритма A*)
-    private int heuristic(int x1, int y1, int x2, int y2) {
-        // Манхэттенское расстояние
-        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+                int neighborCell = obstacles.index(neighborX, neighborY);
+                if (scratch.isClosed(neighborCell)) {
+                    continue;
+                }
 
-        // Или евклидово расстояние
-        // return (int) Math.sqrt(Math.pow(x1 - x2, 2) + Math.pow(y1 - y2, 2));
-    }
+                // Стоимость каждого шага = 1
+                int tentativeGScore = gScore[currentCell] + 1;
 
-    // Альтернативная версия с алгоритмом A*
-    public List<Edge> getTargetPathAStar(Unit attacker, Unit target, List<Unit> allUnits) {
-        // Матрицы для алгоритма
-        int[][] gScore = new int[WIDTH][HEIGHT];
-        int[][] fScore = new int[WIDTH][HEIGHT];
-        boolean[][] visited = new boolean[WIDTH][HEIGHT];
-        Edge[][] previous = new Edge[WIDTH][HEIGHT];
-
-        // Инициализация
-        initializeMatrices(gScore, visited);
-        for (int x = 0; x < WIDTH; x++) {
-            Arrays.fill(fScore[x], INFINITY);
+                if (!scratch.isReached(neighborCell) || tentativeGScore < gScore[neighborCell]) {
+                    scratch.reach(neighborCell, tentativeGScore, currentCell);
+                    openSet.insertOrDecrease(neighborCell, tentativeGScore +
+                            heuristic(neighborX, neighborY, targetX, targetY));
+                }
+            }
         }
 
-        Set<String> obstacles = getAllObstacles(allUnits, attacker, target);
+        scratch.expandedNodes = expanded;
+        return reconstructPath(startCell, targetCell, scratch, attacker, target);
+    }
 
-        int startX = attacker.getxCoordinate();
-        int startY = attacker.getyCoordinate();
-        int targetX = target.getxCoordinate();
-        int targetY = target.getyCoordinate();
+    // Поиск в ширину: все шаги стоят 1, поэтому очередь FIFO выдаёт клетки в порядке расстояния
+    // и путь получается той же длины, что у Dijkstra, без кучи и без объектов на каждый шаг
+    public List<Edge> getTargetPathBreadthFirst(Unit attacker, Unit target, List<Unit> allUnits) {
+        return findPathBreadthFirst(attacker, target, allUnits).asEdges();
+    }
 
-        // Приоритетная очередь для A*
-        PriorityQueue<EdgeDistance> openSet = new PriorityQueue<>(
-                Comparator.comparingInt(EdgeDistance::getDistance)
-        );
+    private PackedPath findPathBreadthFirst(Unit attacker, Unit target, List<Unit> allUnits) {
+        PathSearchScratch scratch = PathSearchScratch.acquire(geometry.width(), geometry.height());
+        OccupancyGrid obstacles = getAllObstacles(scratch, allUnits, attacker, target);
 
-        gScore[startX][startY] = 0;
-        fScore[startX][startY] = heuristic(startX, startY, targetX, targetY);
-        openSet.add(new EdgeDistance(startX, startY, fScore[startX][startY]));
+        int startCell = obstacles.index(attacker.getxCoordinate(), attacker.getyCoordinate());
+        int targetCell = obstacles.index(target.getxCoordinate(), target.getyCoordinate());
 
-        while (!openSet.isEmpty()) {
-            EdgeDistance current = openSet.poll();
-            int currentX = current.getX();
-            int currentY = current.getY();
+        // Клетка помечается при постановке в очередь и попадает в неё не больше одного раза,
+        // поэтому буфера на число клеток поля хватает без переполнения
+        int[] queue = scratch.queue;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startCell;
+        scratch.reach(startCell, 0, NO_CELL);
 
-            if (visited[currentX][currentY]) {
-                continue;
+        while (head < tail) {
+            int currentCell = queue[head++];
+
+            if (currentCell == targetCell) {
+                break;
             }
 
-            visited[currentX][currentY] = true;
+            int currentX = currentCell / geometry.height();
+            int currentY = currentCell % geometry.height();
 
-            if (currentX == targetX && currentY == targetY) {
-                break;
+            for (int[] direction : DIRECTIONS) {
+                int neighborX = currentX + direction[0];
+                int neighborY = currentY + direction[1];
+
+                if (!isValidCell(neighborX, neighborY, obstacles)) {
+                    continue;
+                }
+
+                int neighborCell = obstacles.index(neighborX, neighborY);
+                if (!scratch.isReached(neighborCell)) {
+                    scratch.reach(neighborCell, scratch.distances[currentCell] + 1, currentCell);
+                    queue[tail++] = neighborCell;
+                }
+            }
+        }
+
+        // Каждая извлечённая из очереди клетка раскрыта ровно один раз
+        scratch.expandedNodes = head;
+        return reconstructPath(startCell, targetCell, scratch, attacker, target);
+    }
+
+    // Пути от одного атакующего сразу до всех целей за один поиск в ширину.
+    // Поиск останавливается, как только достигнуты все цели; недостижимой цели соответствует пустой путь
+    public Map<Unit, List<Edge>> getTargetPaths(Unit attacker, List<Unit> targets, List<Unit> allUnits) {
+        PathSearchScratch scratch = PathSearchScratch.acquire(geometry.width(), geometry.height());
+
+        // Живые цели остаются препятствиями: через них нельзя пройти, но в их клетку можно прийти
+        OccupancyGrid obstacles = getAllObstacles(scratch, allUnits, attacker, null);
+
+        int startCell = obstacles.index(attacker.getxCoordinate(), attacker.getyCoordinate());
+        int remainingTargets = 0;
+
+        for (Unit target : targets) {
+            int x = target.getxCoordinate();
+            int y = target.getyCoordinate();
+            if (!obstacles.contains(x, y)) {
+                continue;
             }
 
+            int cell = obstacles.index(x, y);
+            if (cell != startCell && !scratch.isTarget(cell)) {
+                scratch.markTarget(cell);
+                remainingTargets++;
+            }
+        }
+
+        int[] queue = scratch.queue;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startCell;
+        scratch.reach(startCell, 0, NO_CELL);
+
+        while (head < tail && remainingTargets > 0) {
+            int currentCell = queue[head++];
+            int currentX = currentCell / geometry.height();
+            int currentY = currentCell % geometry.height();
+
             for (int[] direction : DIRECTIONS) {
                 int neighborX = currentX + direction[0];
                 int neighborY = currentY + direction[1];
 
-                if (!isValidCell(neighborX, neighborY, obstacles, target)) {
+                if (!obstacles.contains(neighborX, neighborY)) {
+                    continue;
+                }
+
+                int neighborCell = obstacles.index(neighborX, neighborY);
+                if (scratch.isReached(neighborCell)) {
                     continue;
                 }
 
-                // Предполагаем, что стоимость каждого шага = 1
-                int tentativeGScore = gScore[currentX][currentY] + 1;
+                boolean passable = !obstacles.isBlocked(neighborX, neighborY);
+                if (!passable && !scratch.isTarget(neighborCell)) {
+                    continue;
+                }
 
-                if (tentativeGScore < gScore[neighborX][neighborY]) {
-                    previous[neighborX][neighborY] = new Edge(currentX, currentY);
-                    gScore[neighborX][neighborY] = tentativeGScore;
-                    fScore[neighborX][neighborY] = tentativeGScore +
-                            heuristic(neighborX, neighborY, targetX, targetY);
+                scratch.reach(neighborCell, scratch.distances[currentCell] + 1, currentCell);
 
-                    if (!openSet.stream().anyMatch(e -> e.getX() == neighborX && e.getY() == neighborY)) {
-                        openSet.add(new EdgeDistance(neighborX, neighborY, fScore[neighborX][neighborY]));
-                    }
+                if (scratch.isTarget(neighborCell)) {
+                    remainingTargets--;
+                }
+                // Из клетки живой цели поиск дальше не идёт
+                if (passable) {
+                    queue[tail++] = neighborCell;
                 }
             }
         }
 
-        return reconstructPath(startX, startY, target, previous, attacker);
+        scratch.expandedNodes = head;
+
+        Map<Unit, List<Edge>> paths = new LinkedHashMap<>();
+        for (Unit target : targets) {
+            int x = target.getxCoordinate();
+            int y = target.getyCoordinate();
+            PackedPath path = obstacles.contains(x, y)
+                    ? reconstructPath(startCell, obstacles.index(x, y), scratch, attacker, target)
+                    : PackedPath.empty();
+            paths.put(target, path.asEdges());
+        }
+
+        return paths;
+    }
+
+    private PackedPath reconstructPath(int startCell, int targetCell, PathSearchScratch scratch,
+                                       Unit attacker, Unit target) {
+        // Если путь не найден
+        if (!scratch.isReached(targetCell) || scratch.previous[targetCell] == NO_CELL) {
+            System.out.println("Unit " + attacker.getName() +
+                    " cannot find path to attack unit " + target.getName());
+            return PackedPath.empty();
+        }
+
+        // Все шаги стоят 1, поэтому длина пути известна заранее и массив заполняется с конца
+        // сразу в порядке от старта к цели, без разворота
+        int[] cells = new int[scratch.distances[targetCell] + 1];
+        int index = cells.length - 1;
+        for (int cell = targetCell; cell != startCell; cell = scratch.previous[cell]) {
+            cells[index--] = cell;
+        }
+        cells[0] = startCell;
+
+        return new PackedPath(cells, geometry.height());
     }
-}
\ No newline at end of file
+}
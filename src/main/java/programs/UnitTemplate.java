@@ -0,0 +1,23 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.Map;
+
+// Неизменяемая часть юнита, общая для всех юнитов одного типа и всех снимков боя
+public record UnitTemplate(String unitType,
+                           String attackType,
+                           int cost,
+                           Map<String, Double> attackBonuses,
+                           Map<String, Double> defenceBonuses) {
+
+    public UnitTemplate {
+        attackBonuses = attackBonuses == null ? Map.of() : Map.copyOf(attackBonuses);
+        defenceBonuses = defenceBonuses == null ? Map.of() : Map.copyOf(defenceBonuses);
+    }
+
+    public static UnitTemplate of(Unit unit) {
+        return new UnitTemplate(unit.getUnitType(), unit.getAttackType(), unit.getCost(),
+                unit.getAttackBonuses(), unit.getDefenceBonuses());
+    }
+}
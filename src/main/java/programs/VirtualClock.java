@@ -0,0 +1,40 @@
+package programs;
+
+// Виртуальные часы боя: считают ходы и паузы программ юнитов, но никогда не ждут.
+// Паузы учитываются так же, как их выдерживают программы в режиме PACED: по одной на каждый шаг пути
+// и на удар, поэтому getElapsedMillis - время, которое бой занял бы с паузами анимации
+public final class VirtualClock {
+    private long turns;
+    private long pauses;
+    private long elapsedMillis;
+
+    public void advanceTurn() {
+        turns++;
+    }
+
+    public void advancePause(long millis) {
+        pauses++;
+        elapsedMillis += millis;
+    }
+
+    public void reset() {
+        turns = 0;
+        pauses = 0;
+        elapsedMillis = 0;
+    }
+
+    // Число ходов с начала боя
+    public long getTurns() {
+        return turns;
+    }
+
+    // Число пауз программ с начала боя
+    public long getPauses() {
+        return pauses;
+    }
+
+    // Симулированное время пауз с начала боя в миллисекундах
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}